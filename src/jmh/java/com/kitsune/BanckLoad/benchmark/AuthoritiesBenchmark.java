@@ -0,0 +1,82 @@
+package com.kitsune.BanckLoad.benchmark;
+
+import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import com.kitsune.BanckLoad.infrastructure.security.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción de authorities a partir de los roles: CustomUserDetailsService.loadUserByUsername (login,
+ * con getAuthorities y el builder de UserDetails; el repositorio devuelve el usuario sin base de datos) y
+ * AuthenticatedUser.getAuthorities, que se evalúa en cada petición autenticada.
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=AuthoritiesBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class AuthoritiesBenchmark {
+
+    @Param({"1", "3"})
+    public int roles;
+
+    private CustomUserDetailsService userDetailsService;
+    private AuthenticatedUser principal;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Set<String> roleNames = new LinkedHashSet<>(List.of("USER", "ADMIN", "AUDITOR").subList(0, roles));
+        User user = BenchmarkData.user(1L, "alice", roleNames);
+        userDetailsService = new CustomUserDetailsService(repositoryReturning(user), Duration.ofMinutes(1));
+        principal = AuthenticatedUser.from(user);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername("alice");
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> principalAuthorities() {
+        return principal.getAuthorities();
+    }
+
+    // Solo findByUsername y findByEmail intervienen en loadUserByUsername
+    private static UserRepository repositoryReturning(User user) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername", "findByEmail" -> Optional.of(user);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "UserRepository(benchmark)";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,67 @@
+package com.kitsune.BanckLoad.benchmark;
+
+import com.kitsune.BanckLoad.domain.model.Loan;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.domain.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Datos de ejemplo deterministas para los benchmarks: préstamos con la forma de los de producción
+ * (un tercio revisados, importes con céntimos, propósitos de longitud variable)
+ */
+final class BenchmarkData {
+
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2025, 1, 1, 9, 30);
+    private static final String[] PURPOSES = {
+            "Reforma de vivienda",
+            "Compra de vehículo para uso profesional",
+            "Consolidación de deudas de tarjetas de crédito y préstamos personales anteriores",
+            "Estudios"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static User user(long id, String username, Set<String> roles) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(username + "@bankload.com")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3fHc3DnM7OpwRyR5VU1ZE5a")
+                .fullName("Usuario " + username)
+                .roles(roles)
+                .enabled(true)
+                .createdAt(BASE_DATE)
+                .updatedAt(BASE_DATE)
+                .build();
+    }
+
+    static List<Loan> loans(int count) {
+        User customer = user(1L, "alice", Set.of("USER"));
+        User admin = user(2L, "admin", Set.of("ADMIN", "USER"));
+        List<Loan> loans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LoanStatus status = LoanStatus.values()[i % LoanStatus.values().length];
+            LocalDateTime requestDate = BASE_DATE.plusMinutes(i * 37L);
+            loans.add(Loan.builder()
+                    .id(1_000L + i)
+                    .amount(new BigDecimal("1500.00").add(BigDecimal.valueOf(i * 125L, 2)))
+                    .term(6 + i % 54)
+                    .purpose(PURPOSES[i % PURPOSES.length])
+                    .user(customer)
+                    .status(status)
+                    .rejectionReason(status == LoanStatus.REJECTED ? "Ingresos insuficientes" : null)
+                    .requestDate(requestDate)
+                    .reviewedAt(status == LoanStatus.PENDING ? null : requestDate.plusHours(4))
+                    .reviewedBy(status == LoanStatus.PENDING ? null : admin)
+                    .updatedAt(requestDate)
+                    .build());
+        }
+        return loans;
+    }
+}
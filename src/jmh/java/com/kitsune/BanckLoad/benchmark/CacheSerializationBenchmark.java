@@ -0,0 +1,79 @@
+package com.kitsune.BanckLoad.benchmark;
+
+import com.kitsune.BanckLoad.application.dto.LoanPageDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.infrastructure.cache.CacheValueSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de los valores que se guardan en Redis (CacheValueSerializer) para cada tipo cacheado:
+ * un préstamo (región loans), una página de 20 y una de 100 (userLoans y adminLoans; la de 100 supera el
+ * umbral de compresión) y un usuario (users).
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=CacheSerializationBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class CacheSerializationBenchmark {
+
+    public enum CachedType {
+        LOAN,
+        PAGE_20,
+        PAGE_100,
+        USER
+    }
+
+    @Param({"LOAN", "PAGE_20", "PAGE_100", "USER"})
+    public CachedType type;
+
+    private final CacheValueSerializer serializer = new CacheValueSerializer("benchmark");
+
+    private Object value;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        value = switch (type) {
+            case LOAN -> LoanResponseDTO.fromEntity(BenchmarkData.loans(1).get(0));
+            case PAGE_20 -> page(20);
+            case PAGE_100 -> page(100);
+            case USER -> BenchmarkData.user(1L, "alice", Set.of("USER"));
+        };
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    private static LoanPageDTO page(int size) {
+        List<LoanResponseDTO> rows = BenchmarkData.loans(size + 1).stream().map(LoanResponseDTO::fromEntity).toList();
+        return LoanPageDTO.of(rows, size);
+    }
+}
@@ -0,0 +1,100 @@
+package com.kitsune.BanckLoad.benchmark;
+
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import com.kitsune.BanckLoad.infrastructure.security.CustomUserDetailsService;
+import com.kitsune.BanckLoad.infrastructure.security.JwtAuthenticationFilter;
+import com.kitsune.BanckLoad.infrastructure.security.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por petición de JwtAuthenticationFilter con un token Bearer válido, sin caché de tokens verificados
+ * (cacheSize=0: HMAC y parseo de claims en cada petición) y con ella (el mismo token repetido).
+ * El principal sale de la caché de principales, aquí un stub que lo devuelve directamente. skipPublicPath y anonymousRequest
+ * miden las salidas tempranas: rutas públicas y peticiones sin cabecera Authorization.
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=JwtFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletRequest publicRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JwtService(SECRET, TimeUnit.HOURS.toMillis(1), cacheSize);
+        AuthenticatedUser user = new AuthenticatedUser(1L, "alice", Set.of("USER"), true);
+        filter = new JwtAuthenticationFilter(jwtService, new CustomUserDetailsService(null, Duration.ofMinutes(1)) {
+            @Override
+            public AuthenticatedUser loadPrincipal(String username) {
+                return user;
+            }
+        }, new SimpleMeterRegistry());
+
+        request = new MockHttpServletRequest("GET", "/api/loans/my-loans");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        response = new MockHttpServletResponse();
+
+        publicRequest = new MockHttpServletRequest("POST", "/api/auth/login");
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/loans/my-loans");
+    }
+
+    @Benchmark
+    public Authentication filterRequest() throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public void skipPublicPath() throws Exception {
+        filter.doFilter(publicRequest, response, chain);
+    }
+
+    @Benchmark
+    public void anonymousRequest() throws Exception {
+        filter.doFilter(anonymousRequest, response, chain);
+    }
+
+    @Benchmark
+    public String verifyToken() {
+        return jwtService.verify(request.getHeader("Authorization").substring(7)).username();
+    }
+}
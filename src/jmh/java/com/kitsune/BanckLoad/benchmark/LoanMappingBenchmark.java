@@ -0,0 +1,75 @@
+package com.kitsune.BanckLoad.benchmark;
+
+import com.kitsune.BanckLoad.application.dto.LoanPageDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.Loan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de convertir préstamos a LoanResponseDTO (LoanResponseDTO.fromEntity) y de serializar a JSON las
+ * listas y páginas que devuelven los endpoints. size=20 es la página por defecto y 100 la máxima.
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=LoanMappingBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class LoanMappingBenchmark {
+
+    @Param({"20", "100"})
+    public int size;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private List<Loan> loans;
+    private List<LoanResponseDTO> dtos;
+    private LoanPageDTO page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loans = BenchmarkData.loans(size + 1);
+        dtos = loans.stream().map(LoanResponseDTO::fromEntity).toList();
+        page = LoanPageDTO.of(dtos, size);
+        loans = loans.subList(0, size);
+        dtos = dtos.subList(0, size);
+    }
+
+    @Benchmark
+    public List<LoanResponseDTO> mapEntities() {
+        return loans.stream().map(LoanResponseDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeList() {
+        return jsonMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() {
+        return jsonMapper.writeValueAsBytes(loans.stream().map(LoanResponseDTO::fromEntity).toList());
+    }
+}
@@ -0,0 +1,197 @@
+package com.kitsune.BanckLoad.benchmark;
+
+import com.kitsune.BanckLoad.BanckLoadApplication;
+import com.kitsune.BanckLoad.application.dto.LoanRequestDTO;
+import com.kitsune.BanckLoad.application.dto.LoginRequestDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hilos de plataforma frente a hilos virtuales sobre la aplicación real: cada modo arranca BanckLoad en un
+ * proceso propio, con Tomcat, H2 en memoria y spring.threads.virtual.enabled según el modo, y lanza peticiones
+ * HTTP autenticadas contra /api/loans/my-loans. PLATFORM usa el pool por defecto de Tomcat (200 hilos);
+ * VIRTUAL, un hilo virtual por petición.
+ * <p>
+ * cachedPage pide la primera página, que sale de la caché; queriedPage pide otro tamaño de página, que no se
+ * cachea y pasa por el pool de conexiones de clientes. Los hilos de JMH hacen de clientes concurrentes, por
+ * encima de los hilos de Tomcat: Throughput da peticiones por segundo y SampleTime la distribución de
+ * latencia (p0.99 en el informe).
+ * <p>
+ * La aplicación corre con el classpath de ejecución que pasa Gradle (benchmark.app.classpath): el jar de JMH
+ * no conserva los metadatos de autoconfiguración de cada módulo de Spring Boot. Como la aplicación, necesita
+ * Redis en localhost.
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=ThreadModeBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(400)
+public class ThreadModeBenchmark {
+
+    public enum ThreadMode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    private static final long STARTUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadMode mode;
+
+    // Préstamos del usuario de las peticiones
+    @Param({"50"})
+    public int loans;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private Process server;
+    private Path serverLog;
+    private HttpClient client;
+    private String authorization;
+    private URI cachedPage;
+    private URI queriedPage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String classpath = System.getProperty("benchmark.app.classpath");
+        if (classpath == null) {
+            throw new IllegalStateException("Falta benchmark.app.classpath: ejecutar con ./gradlew jmh");
+        }
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        serverLog = Files.createTempFile("thread-mode-" + mode.name().toLowerCase() + "-", ".log");
+        String java = ProcessHandle.current().info().command().orElse("java");
+        server = new ProcessBuilder(java, "-cp", classpath, BanckLoadApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.threads.virtual.enabled=" + (mode == ThreadMode.VIRTUAL),
+                "--spring.datasource.url=jdbc:h2:mem:thread-mode;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.kitsune.BanckLoad=WARN",
+                "--logging.level.org.springframework.security=WARN")
+                .redirectErrorStream(true)
+                .redirectOutput(serverLog.toFile())
+                .start();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String base = "http://localhost:" + port;
+        awaitStartup(URI.create(base + "/actuator/health"));
+
+        LoginRequestDTO login = LoginRequestDTO.builder().email("usuario").password("123").build();
+        String token = jsonMapper.readTree(post(URI.create(base + "/api/auth/login"), login, null))
+                .get("token").asString();
+        authorization = "Bearer " + token;
+        for (int i = 0; i < loans; i++) {
+            LoanRequestDTO loan = LoanRequestDTO.builder()
+                    .amount(new BigDecimal("1000.00").add(BigDecimal.valueOf(i)))
+                    .term(12)
+                    .purpose("Préstamo de prueba " + i)
+                    .build();
+            post(URI.create(base + "/api/loans"), loan, authorization);
+        }
+
+        cachedPage = URI.create(base + "/api/loans/my-loans");
+        queriedPage = URI.create(base + "/api/loans/my-loans?size=10");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.close();
+        server.destroy();
+        if (!server.waitFor(30, TimeUnit.SECONDS)) {
+            server.destroyForcibly();
+        }
+    }
+
+    @Benchmark
+    public int cachedPage() throws Exception {
+        return get(cachedPage);
+    }
+
+    @Benchmark
+    public int queriedPage() throws Exception {
+        return get(queriedPage);
+    }
+
+    private int get(URI uri) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", authorization).build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Respuesta inesperada " + response.statusCode() + " de " + uri);
+        }
+        return response.body().length;
+    }
+
+    private String post(URI uri, Object body, String authorization) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonMapper.writeValueAsString(body)));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        HttpResponse<String> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("La aplicación terminó al arrancar, ver " + serverLog, e);
+            }
+            throw e;
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Respuesta inesperada " + response.statusCode() + " de " + uri
+                    + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    // Cualquier respuesta HTTP vale: el estado de salud incluye Redis y puede no ser UP
+    private void awaitStartup(URI health) throws Exception {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("La aplicación terminó al arrancar, ver " + serverLog);
+            }
+            try {
+                client.send(HttpRequest.newBuilder(health).build(), HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("La aplicación no arrancó a tiempo, ver " + serverLog);
+    }
+}
@@ -3,6 +3,7 @@ package com.kitsune.BanckLoad.application.controller;
 import com.kitsune.BanckLoad.application.dto.AuthResponseDTO;
 import com.kitsune.BanckLoad.application.dto.LoginRequestDTO;
 import com.kitsune.BanckLoad.application.dto.RegisterRequestDTO;
+import com.kitsune.BanckLoad.application.exception.LoginThrottledException;
 import com.kitsune.BanckLoad.application.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +24,9 @@ public class AuthController {
         try {
             AuthResponseDTO response = authService.register(request);
             return ResponseEntity.ok(response);
+        } catch (LoginThrottledException e) {
+            // El alta también calcula el hash en el pool acotado: 429 con Retry-After como el login
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(
                 AuthResponseDTO.builder()
@@ -40,6 +44,9 @@ public class AuthController {
         try {
             AuthResponseDTO response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (LoginThrottledException e) {
+            // 429 con Retry-After desde GlobalExceptionHandler
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(
                 AuthResponseDTO.builder()
@@ -1,17 +1,38 @@
 package com.kitsune.BanckLoad.application.controller;
 
+import com.kitsune.BanckLoad.application.dto.LoanBulkRequestDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkResultDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkReviewRequestDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkReviewResultDTO;
+import com.kitsune.BanckLoad.application.dto.LoanPageDTO;
 import com.kitsune.BanckLoad.application.dto.LoanRequestDTO;
 import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
 import com.kitsune.BanckLoad.application.dto.LoanReviewDTO;
+import com.kitsune.BanckLoad.application.service.LoanBulkService;
+import com.kitsune.BanckLoad.application.service.LoanExportService;
+import com.kitsune.BanckLoad.application.service.LoanIntakeService;
 import com.kitsune.BanckLoad.application.service.LoanService;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.push.LoanEventBroadcaster;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/loans")
@@ -19,24 +40,30 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class LoanController {
 
+    // Una exportación dura lo que tarde en recorrer la tabla: sin el límite global de las respuestas asíncronas
+    private static final long EXPORT_TIMEOUT = -1;
+
     private final LoanService loanService;
+    private final LoanExportService loanExportService;
+    private final LoanBulkService loanBulkService;
+    private final LoanIntakeService loanIntakeService;
+    private final LoanEventBroadcaster loanEventBroadcaster;
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<LoanResponseDTO>> getUserLoans(Authentication authentication) {
-        String username = authentication.getName();
-
-        // Verificar si el usuario es admin
-        boolean isAdmin = authentication.getAuthorities().stream()
-                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+    public ResponseEntity<LoanPageDTO> getUserLoans(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        String username = principal.getUsername();
 
-        List<LoanResponseDTO> loans;
-        if (isAdmin) {
+        LoanPageDTO loans;
+        if (principal.isAdmin()) {
             // Admin ve todas las solicitudes
-            loans = loanService.getAllLoans();
+            loans = loanService.getAllLoans(cursor, size);
         } else {
             // Usuario normal solo ve sus préstamos
-            loans = loanService.getUserLoans(username);
+            loans = loanService.getUserLoans(username, cursor, size);
         }
 
         return ResponseEntity.ok(loans);
@@ -44,52 +71,100 @@ public class LoanController {
 
     @PostMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<LoanResponseDTO> createLoan(
+    public CompletableFuture<ResponseEntity<LoanResponseDTO>> createLoan(
             @Valid @RequestBody LoanRequestDTO request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        LoanResponseDTO response = loanService.requestLoan(request, username);
-        return ResponseEntity.ok(response);
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return loanIntakeService.submit(request, principal).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/request")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<LoanResponseDTO> requestLoan(
+    public CompletableFuture<ResponseEntity<LoanResponseDTO>> requestLoan(
             @Valid @RequestBody LoanRequestDTO request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        LoanResponseDTO response = loanService.requestLoan(request, username);
-        return ResponseEntity.ok(response);
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return loanIntakeService.submit(request, principal).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamLoanEvents(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return loanEventBroadcaster.subscribe(principal.getUsername(), principal.isAdmin());
     }
 
     @GetMapping("/my-loans")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<LoanResponseDTO>> getMyLoans(Authentication authentication) {
-        String username = authentication.getName();
-        List<LoanResponseDTO> loans = loanService.getUserLoans(username);
+    public ResponseEntity<LoanPageDTO> getMyLoans(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        LoanPageDTO loans = loanService.getUserLoans(principal.getUsername(), cursor, size);
         return ResponseEntity.ok(loans);
     }
 
     @GetMapping("/admin/pending")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<LoanResponseDTO>> getPendingLoans() {
-        List<LoanResponseDTO> loans = loanService.getPendingLoans();
+    public ResponseEntity<LoanPageDTO> getPendingLoans(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        LoanPageDTO loans = loanService.getPendingLoans(cursor, size);
         return ResponseEntity.ok(loans);
     }
 
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<LoanResponseDTO>> getAllLoans() {
-        List<LoanResponseDTO> loans = loanService.getAllLoans();
+    public ResponseEntity<LoanPageDTO> getAllLoans(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        LoanPageDTO loans = loanService.getAllLoans(cursor, size);
         return ResponseEntity.ok(loans);
     }
 
+    @PostMapping("/admin/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LoanBulkResultDTO> bulkCreateLoans(@Valid @RequestBody LoanBulkRequestDTO request) {
+        LoanBulkResultDTO result = loanBulkService.ingest(request.getLoans());
+        return ResponseEntity.ok(result);
+    }
+
+    // La respuesta se escribe directamente en streaming; @ResponseStatus da por atendida la petición al terminar
+    @GetMapping("/admin/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.OK)
+    public WebAsyncTask<Void> exportLoans(
+            @RequestParam(defaultValue = "CSV") LoanExportService.Format format,
+            @RequestParam(required = false) Set<LoanStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) {
+        String filename = "loans." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+
+        return new WebAsyncTask<>(EXPORT_TIMEOUT, () -> {
+            ServletOutputStream out = response.getOutputStream();
+            loanExportService.export(format, status, from, to, gzip, out);
+            out.flush();
+            return null;
+        });
+    }
+
+    @PutMapping("/admin/review/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LoanBulkReviewResultDTO> bulkReviewLoans(
+            @Valid @RequestBody LoanBulkReviewRequestDTO request,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        LoanBulkReviewResultDTO result = loanBulkService.review(request.getReviews(), principal);
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/admin/review/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<LoanResponseDTO> reviewLoan(
             @PathVariable Long id,
-            @Valid @RequestBody LoanReviewDTO review) {
-        LoanResponseDTO response = loanService.reviewLoan(id, review);
+            @Valid @RequestBody LoanReviewDTO review,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        LoanResponseDTO response = loanService.reviewLoan(id, review, principal);
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,50 @@
+package com.kitsune.BanckLoad.application.controller;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.service.ReactiveLoanService;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Listados de préstamos en streaming NDJSON: una línea JSON por préstamo, escrita a medida que el cliente
+ * la consume
+ */
+@RestController
+@RequestMapping("/api/reactive/loans")
+@RequiredArgsConstructor
+public class ReactiveLoanController {
+
+    private final ReactiveLoanService reactiveLoanService;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Flux<LoanResponseDTO> streamAllLoans(@RequestParam(required = false) Set<LoanStatus> status) {
+        return reactiveLoanService.getAllLoansReactive(status);
+    }
+
+    @GetMapping(value = "/my-loans", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public Flux<LoanResponseDTO> streamMyLoans(@RequestParam(required = false) Set<LoanStatus> status,
+                                               @AuthenticationPrincipal AuthenticatedUser principal) {
+        return reactiveLoanService.getUserLoansReactive(principal.getUsername(), status);
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<LoanResponseDTO> getLoan(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser principal) {
+        return reactiveLoanService.getLoanByIdReactive(id, principal.getUsername(), principal.isAdmin());
+    }
+}
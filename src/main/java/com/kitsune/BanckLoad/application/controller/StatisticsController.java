@@ -1,17 +1,30 @@
 package com.kitsune.BanckLoad.application.controller;
 
+import com.kitsune.BanckLoad.application.dto.LoanAnalyticsDTO;
+import com.kitsune.BanckLoad.application.dto.StatisticsBucketDTO;
 import com.kitsune.BanckLoad.application.service.StatisticsService;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.analytics.AnalyticsGroupBy;
+import com.kitsune.BanckLoad.infrastructure.analytics.LoanAnalyticsFilter;
+import com.kitsune.BanckLoad.infrastructure.statistics.RollupGranularity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/statistics")
@@ -24,14 +37,55 @@ public class StatisticsController {
     @GetMapping("/global")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getGlobalStatistics() {
-        log.info("Solicitando estadísticas globales (con caché)");
+        log.info("Solicitando estadísticas globales");
         return ResponseEntity.ok(statisticsService.getGlobalStatistics());
     }
 
     @GetMapping("/user")
     public ResponseEntity<Map<String, Object>> getUserStatistics(@AuthenticationPrincipal UserDetails userDetails) {
-        log.info("Solicitando estadísticas del usuario: {} (con caché)", userDetails.getUsername());
+        log.info("Solicitando estadísticas del usuario: {}", userDetails.getUsername());
         return ResponseEntity.ok(statisticsService.getUserStatistics(userDetails.getUsername()));
     }
+
+    @GetMapping("/rollups")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<StatisticsBucketDTO>> getRollups(
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Solicitando rollups {} de {} a {}", granularity, from, to);
+        return ResponseEntity.ok(statisticsService.getRollups(granularity, from, to));
+    }
+
+    @GetMapping("/analytics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LoanAnalyticsDTO> getAnalytics(
+            @RequestParam(required = false) Set<LoanStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Integer term,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(defaultValue = "NONE") AnalyticsGroupBy groupBy) {
+        log.info("Solicitando analítica de préstamos agrupada por {}", groupBy);
+        LoanAnalyticsFilter filter = LoanAnalyticsFilter.builder()
+                .statuses(status)
+                .from(from != null ? from.atStartOfDay() : null)
+                .to(to != null ? to.plusDays(1).atStartOfDay() : null)
+                .userId(userId)
+                .term(term)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .build();
+        return ResponseEntity.ok(statisticsService.getAnalytics(filter, groupBy));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        log.info("Reconstruyendo rollups de estadísticas");
+        return ResponseEntity.ok(Map.of("buckets", statisticsService.rebuildRollups()));
+    }
 }
 
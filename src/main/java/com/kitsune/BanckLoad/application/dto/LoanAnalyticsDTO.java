@@ -0,0 +1,44 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una consulta de analítica sobre el almacén columnar de préstamos.
+ * Los percentiles de importe se indexan como "p50", "p90" y "p99".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanAnalyticsDTO {
+    private boolean loaded;
+    private int scannedLoans;
+    private long matchedLoans;
+    private BigDecimal totalAmount;
+    private BigDecimal averageAmount;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private double averageTerm;
+    private Map<String, BigDecimal> amountPercentiles;
+    private String groupBy;
+    private List<Group> groups;
+    private long elapsedMicros;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Group {
+        private String key;
+        private long count;
+        private BigDecimal totalAmount;
+        private BigDecimal averageAmount;
+    }
+}
@@ -0,0 +1,36 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Solicitud de préstamo de un lote de alta masiva: mismas reglas que LoanRequestDTO más el solicitante
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBulkItemDTO {
+
+    @NotBlank(message = "El usuario es obligatorio")
+    private String username;
+
+    @NotNull(message = "El monto es obligatorio")
+    @DecimalMin(value = "100.0", message = "El monto mínimo es 100")
+    private BigDecimal amount;
+
+    @NotNull(message = "El plazo es obligatorio")
+    @Min(value = 1, message = "El plazo mínimo es 1 mes")
+    private Integer term;
+
+    @NotNull(message = "El propósito es obligatorio")
+    private String purpose;
+}
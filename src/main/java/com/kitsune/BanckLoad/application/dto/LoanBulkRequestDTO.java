@@ -0,0 +1,26 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Lote de alta masiva. Cada fila se valida por separado y sus errores se devuelven en el resultado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBulkRequestDTO {
+
+    public static final int MAX_ROWS = 50_000;
+
+    @NotEmpty(message = "El lote no puede estar vacío")
+    @Size(max = MAX_ROWS, message = "El lote admite como máximo " + MAX_ROWS + " préstamos")
+    private List<LoanBulkItemDTO> loans;
+}
@@ -0,0 +1,35 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de un alta masiva. loanIds sigue el orden del lote (null en las filas rechazadas) y errors
+ * solo incluye las filas rechazadas, indicadas por su posición en el lote.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBulkResultDTO {
+    private int received;
+    private int created;
+    private int failed;
+    private List<Long> loanIds;
+    private List<RowError> errors;
+    private long elapsedMillis;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowError {
+        private int index;
+        private String username;
+        private String message;
+    }
+}
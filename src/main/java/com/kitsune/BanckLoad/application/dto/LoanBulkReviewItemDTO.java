@@ -0,0 +1,23 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBulkReviewItemDTO {
+
+    @NotNull(message = "El id del préstamo es obligatorio")
+    private Long loanId;
+
+    @NotBlank(message = "La acción es obligatoria (APPROVED o REJECTED)")
+    private String action;
+
+    private String rejectionReason;
+}
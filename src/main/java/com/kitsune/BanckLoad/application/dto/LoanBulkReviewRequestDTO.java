@@ -0,0 +1,24 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBulkReviewRequestDTO {
+
+    public static final int MAX_REVIEWS = 5_000;
+
+    @NotEmpty(message = "La lista de revisiones no puede estar vacía")
+    @Size(max = MAX_REVIEWS, message = "Se admiten como máximo " + MAX_REVIEWS + " revisiones por petición")
+    private List<@Valid LoanBulkReviewItemDTO> reviews;
+}
@@ -0,0 +1,43 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una revisión masiva: un resultado por revisión solicitada, en el mismo orden
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBulkReviewResultDTO {
+    private int received;
+    private int approved;
+    private int rejected;
+    private int failed;
+    private List<Outcome> results;
+    private long elapsedMillis;
+
+    public enum Status {
+        APPROVED,
+        REJECTED,
+        NOT_FOUND,
+        ALREADY_REVIEWED,
+        INVALID_ACTION,
+        DUPLICATE
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Outcome {
+        private Long loanId;
+        private Status status;
+        private String message;
+    }
+}
@@ -0,0 +1,42 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición de la última fila entregada (requestDate, id), codificada en Base64 URL-safe.
+ */
+@Value(staticConstructor = "of")
+public class LoanCursor {
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime requestDate;
+    Long id;
+
+    public String encode() {
+        String raw = requestDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente. Devuelve null si no se envió ninguno (primera página).
+     */
+    public static LoanCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return LoanCursor.of(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de préstamos obtenida por keyset (requestDate, id), del más reciente al más antiguo.
+ * nextCursor es opaco y se envía tal cual en la siguiente petición.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanPageDTO {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private List<LoanResponseDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+
+    /**
+     * Limita el tamaño solicitado al rango [1, MAX_SIZE]
+     */
+    public static int normalizeSize(int size) {
+        if (size < 1) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Construye la página a partir de hasta limit + 1 filas: la fila extra solo indica que hay más
+     */
+    public static LoanPageDTO of(List<LoanResponseDTO> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<LoanResponseDTO> items = hasMore ? List.copyOf(rows.subList(0, limit)) : List.copyOf(rows);
+
+        String nextCursor = null;
+        if (hasMore) {
+            LoanResponseDTO last = items.get(items.size() - 1);
+            nextCursor = LoanCursor.of(last.getRequestDate(), last.getId()).encode();
+        }
+
+        return LoanPageDTO.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .size(items.size())
+                .build();
+    }
+}
@@ -1,12 +1,12 @@
 package com.kitsune.BanckLoad.application.dto;
 
 import com.kitsune.BanckLoad.domain.model.Loan;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class LoanResponseDTO implements Serializable {
+public class LoanResponseDTO {
 
     private Long id;
     private BigDecimal amount;
@@ -29,7 +29,24 @@ public class LoanResponseDTO implements Serializable {
     private Long userId;
     private String username;
 
+    /**
+     * Constructor usado por las proyecciones JPQL de LoanRepository (SELECT new ...)
+     */
+    public LoanResponseDTO(Long id, BigDecimal amount, Integer term, String purpose, LoanStatus status,
+                           String rejectionReason, LocalDateTime requestDate, LocalDateTime reviewedAt,
+                           String reviewedByUsername, Long userId, String username) {
+        this(id, amount, term, purpose, status.name(), status.getDisplayName(), rejectionReason,
+                requestDate, reviewedAt, reviewedByUsername, userId, username);
+    }
+
     public static LoanResponseDTO fromEntity(Loan loan) {
+        return fromEntity(loan, loan.getUser().getUsername());
+    }
+
+    /**
+     * Variante para préstamos cuyo usuario es una referencia sin cargar: el username lo aporta el llamante
+     */
+    public static LoanResponseDTO fromEntity(Loan loan, String username) {
         return LoanResponseDTO.builder()
                 .id(loan.getId())
                 .amount(loan.getAmount())
@@ -42,7 +59,7 @@ public class LoanResponseDTO implements Serializable {
                 .reviewedAt(loan.getReviewedAt())
                 .reviewedByUsername(loan.getReviewedBy() != null ? loan.getReviewedBy().getUsername() : null)
                 .userId(loan.getUser().getId())
-                .username(loan.getUser().getUsername())
+                .username(username)
                 .build();
     }
 }
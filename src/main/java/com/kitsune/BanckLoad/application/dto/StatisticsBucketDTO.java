@@ -0,0 +1,30 @@
+package com.kitsune.BanckLoad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Estadísticas de un bucket [start, end). Volumen, importes y plazo corresponden a las solicitudes
+ * recibidas en el periodo; aprobados, rechazados y tasas a las revisiones hechas en el periodo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatisticsBucketDTO {
+    private LocalDate start;
+    private LocalDate end;
+    private long requestedLoans;
+    private BigDecimal totalAmount;
+    private BigDecimal averageAmount;
+    private double averageTerm;
+    private long approvedLoans;
+    private long rejectedLoans;
+    private double approvalRate;
+    private double rejectionRate;
+}
@@ -0,0 +1,12 @@
+package com.kitsune.BanckLoad.application.event;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import lombok.Value;
+
+/**
+ * Se publica al registrar una solicitud de préstamo. Los listeners transaccionales lo reciben tras el commit.
+ */
+@Value
+public class LoanCreatedEvent {
+    LoanResponseDTO loan;
+}
@@ -0,0 +1,14 @@
+package com.kitsune.BanckLoad.application.event;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import lombok.Value;
+
+/**
+ * Se publica al aprobar o rechazar un préstamo. loan refleja el estado ya revisado.
+ */
+@Value
+public class LoanReviewedEvent {
+    LoanResponseDTO loan;
+    LoanStatus previousStatus;
+}
@@ -0,0 +1,15 @@
+package com.kitsune.BanckLoad.application.event;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Se publica por cada lote confirmado de una alta masiva, en lugar de un LoanCreatedEvent por préstamo,
+ * para que los listeners agreguen sus actualizaciones.
+ */
+@Value
+public class LoansImportedEvent {
+    List<LoanResponseDTO> loans;
+}
@@ -0,0 +1,14 @@
+package com.kitsune.BanckLoad.application.event;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Se publica tras una revisión masiva con los préstamos que pasaron de PENDING a aprobado o rechazado
+ */
+@Value
+public class LoansReviewedEvent {
+    List<LoanResponseDTO> loans;
+}
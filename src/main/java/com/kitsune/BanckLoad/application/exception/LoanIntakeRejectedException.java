@@ -0,0 +1,11 @@
+package com.kitsune.BanckLoad.application.exception;
+
+/**
+ * La cola de admisión de solicitudes está llena o detenida: el cliente debe reintentar más tarde
+ */
+public class LoanIntakeRejectedException extends RuntimeException {
+
+    public LoanIntakeRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.kitsune.BanckLoad.application.exception;
+
+/**
+ * La revisión llegó tarde: el préstamo ya no está pendiente porque otra revisión se confirmó antes
+ */
+public class LoanReviewConflictException extends RuntimeException {
+
+    public LoanReviewConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.kitsune.BanckLoad.application.exception;
+
+/**
+ * El pool de verificación de contraseñas está saturado: el login se rechaza sin esperar turno
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
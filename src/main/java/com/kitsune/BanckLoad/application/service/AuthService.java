@@ -4,40 +4,47 @@ import com.kitsune.BanckLoad.application.dto.AuthResponseDTO;
 import com.kitsune.BanckLoad.application.dto.LoginRequestDTO;
 import com.kitsune.BanckLoad.application.dto.RegisterRequestDTO;
 import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.registration.UserIdentityIndex;
 import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
 import com.kitsune.BanckLoad.infrastructure.security.JwtService;
+import com.kitsune.BanckLoad.infrastructure.security.PasswordHasher;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Service
+@Timed(value = "bankload.service", histogram = true)
 @RequiredArgsConstructor
+@Slf4j
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
-
-    @Transactional
-    @CacheEvict(value = "users", allEntries = true)
+    private final UserIdentityIndex identityIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * El hash BCrypt se calcula antes de abrir la transacción, como en el login: ninguna conexión queda
+     * retenida mientras tanto. La transacción cubre solo las comprobaciones de existencia y el INSERT.
+     * Solo se consulta la base de datos si el índice de registro dice que el username o el email
+     * pueden existir. Si dos altas compiten por el mismo valor decide la restricción única del INSERT.
+     */
+    @CacheEvict(value = "users", key = "#request.username")
     public AuthResponseDTO register(RegisterRequestDTO request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("El nombre de usuario ya existe");
-        }
-
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("El email ya está registrado");
-        }
-
         Set<String> roles = new HashSet<>();
         if (request.getRoles() != null && !request.getRoles().isEmpty()) {
             roles.addAll(request.getRoles());
@@ -48,15 +55,20 @@ public class AuthService {
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHasher.encode(request.getPassword()))
                 .fullName(request.getFullName())
                 .roles(roles)
                 .enabled(true)
                 .build();
 
-        userRepository.save(user);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(user));
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("El nombre de usuario o el email ya están registrados");
+        }
+        identityIndex.record(user.getUsername(), user.getEmail());
 
-        String token = jwtService.generateToken(user.getUsername());
+        String token = jwtService.generateToken(AuthenticatedUser.from(user));
 
         return AuthResponseDTO.builder()
                 .token(token)
@@ -67,20 +79,38 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional(readOnly = true)
+    private void insert(User user) {
+        if (identityIndex.mightContainUsername(user.getUsername())
+                && userRepository.existsByUsername(user.getUsername())) {
+            throw new RuntimeException("El nombre de usuario ya existe");
+        }
+
+        if (identityIndex.mightContainEmail(user.getEmail())
+                && userRepository.existsByEmail(user.getEmail())) {
+            throw new RuntimeException("El email ya está registrado");
+        }
+
+        userRepository.save(user);
+    }
+
+    /**
+     * Una sola consulta del usuario (por email) y la verificación BCrypt en el pool de hashing.
+     * Sin transacción: ninguna conexión queda retenida mientras se calcula el hash. Si el hash guardado
+     * tiene un coste distinto del configurado se recalcula con la contraseña recién verificada.
+     */
     public AuthResponseDTO login(LoginRequestDTO request) {
-        // Buscar usuario por email
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Credenciales inválidas"));
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        user.getUsername(),
-                        request.getPassword()
-                )
-        );
+        // Mismo coste exista o no la cuenta, y el mismo error en ambos casos
+        if (!passwordHasher.matches(request.getPassword(), user != null ? user.getPassword() : null)) {
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+        if (!Boolean.TRUE.equals(user.getEnabled())) {
+            throw new DisabledException("Usuario deshabilitado");
+        }
+        rehashIfNeeded(user, request.getPassword());
 
-        String token = jwtService.generateToken(user.getUsername());
+        String token = jwtService.generateToken(AuthenticatedUser.from(user));
 
         return AuthResponseDTO.builder()
                 .token(token)
@@ -91,6 +121,22 @@ public class AuthService {
                 .build();
     }
 
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String newHash = passwordHasher.encode(rawPassword);
+            if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), newHash,
+                    LocalDateTime.now()) == 1) {
+                log.info("Hash de contraseña actualizado al coste configurado: {}", user.getUsername());
+            }
+        } catch (RuntimeException e) {
+            // El login ya es válido; el rehash se reintenta en el siguiente
+            log.warn("No se pudo actualizar el hash de contraseña de {}: {}", user.getUsername(), e.getMessage());
+        }
+    }
+
     @Cacheable(value = "users", key = "#username")
     @Transactional(readOnly = true)
     public User getUserByUsername(String username) {
@@ -0,0 +1,350 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanBulkItemDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkResultDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkReviewItemDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkReviewResultDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.event.LoansImportedEvent;
+import com.kitsune.BanckLoad.application.event.LoansReviewedEvent;
+import com.kitsune.BanckLoad.domain.model.Loan;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de préstamos: valida cada fila, resuelve los usuarios del lote en bloque e inserta en
+ * tramos transaccionales con INSERT agrupados por JDBC (ver loans_seq y hibernate.jdbc.batch_size).
+ * Una fila inválida o un tramo que falla en la base de datos no impiden guardar el resto del lote.
+ * Las cachés afectadas se invalidan una sola vez al final.
+ * <p>
+ * La revisión masiva aplica un UPDATE condicional por préstamo, todos en un único lote JDBC y una única
+ * transacción: el recuento de cada sentencia dice si esa revisión se aplicó o el préstamo ya no estaba
+ * pendiente, y con él se devuelve el resultado de cada préstamo solicitado.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanBulkService {
+
+    // Filas por transacción: un fallo de base de datos solo descarta su tramo
+    static final int CHUNK_SIZE = 1_000;
+    // Usernames por consulta IN, por debajo del límite de parámetros de PostgreSQL
+    static final int USER_LOOKUP_SIZE = 10_000;
+    // Por encima de este número de claves afectadas se vacía la región en lugar de invalidar clave a clave
+    static final int USER_EVICTION_THRESHOLD = 100;
+    static final int LOAN_EVICTION_THRESHOLD = 100;
+
+    // Mensaje fijo para el cliente: el detalle de la excepción (SQL, restricciones) solo va al log
+    static final String SAVE_FAILED = "No se pudo guardar el préstamo";
+
+    // Solo cambia si sigue pendiente: un recuento de 0 es un préstamo ya revisado (o inexistente)
+    private static final String REVIEW_PENDING_SQL = "UPDATE loans SET status = ?, rejection_reason = ?, "
+            + "reviewed_at = ?, reviewed_by = ?, updated_at = ? WHERE id = ? AND status = ?";
+
+    private final LoanRepository loanRepository;
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    public LoanBulkResultDTO ingest(List<LoanBulkItemDTO> items) {
+        long start = System.nanoTime();
+        Rows rows = insert(items);
+
+        Long[] loanIds = new Long[items.size()];
+        List<LoanBulkResultDTO.RowError> errors = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (rows.saved()[i] != null) {
+                loanIds[i] = rows.saved()[i].getId();
+            } else {
+                LoanBulkItemDTO item = items.get(i);
+                errors.add(new LoanBulkResultDTO.RowError(i, item != null ? item.getUsername() : null,
+                        rows.errors()[i]));
+            }
+        }
+
+        int created = (int) Arrays.stream(loanIds).filter(Objects::nonNull).count();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Alta masiva: {} recibidos, {} creados, {} rechazados en {} ms",
+                items.size(), created, errors.size(), elapsedMillis);
+
+        return LoanBulkResultDTO.builder()
+                .received(items.size())
+                .created(created)
+                .failed(errors.size())
+                .loanIds(Arrays.asList(loanIds))
+                .errors(errors)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    /**
+     * Filas guardadas y mensajes de error alineados con la entrada: en cada posición hay uno de los dos
+     */
+    record Rows(LoanResponseDTO[] saved, String[] errors) {
+    }
+
+    /**
+     * Núcleo del alta masiva, compartido con la cola de admisión: valida, inserta por tramos
+     * e invalida las cachés una vez
+     */
+    Rows insert(List<LoanBulkItemDTO> items) {
+        return insert(items, Map.of());
+    }
+
+    /**
+     * Igual que {@link #insert(List)}, con usuarios ya conocidos por el llamante (por username):
+     * solo se consultan los que faltan
+     */
+    Rows insert(List<LoanBulkItemDTO> items, Map<String, User> knownUsers) {
+        LoanResponseDTO[] savedRows = new LoanResponseDTO[items.size()];
+        String[] errors = new String[items.size()];
+
+        Map<String, User> users = resolveUsers(items, knownUsers);
+
+        List<Integer> indexes = new ArrayList<>(items.size());
+        List<Loan> loans = new ArrayList<>(items.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < items.size(); i++) {
+            LoanBulkItemDTO item = items.get(i);
+            String error = validate(item, users);
+            if (error != null) {
+                errors[i] = error;
+                continue;
+            }
+            indexes.add(i);
+            loans.add(Loan.builder()
+                    .amount(item.getAmount())
+                    .term(item.getTerm())
+                    .purpose(item.getPurpose())
+                    .user(users.get(item.getUsername()))
+                    .status(LoanStatus.PENDING)
+                    .requestDate(now)
+                    .build());
+        }
+
+        Set<String> touchedUsers = new LinkedHashSet<>();
+        for (int from = 0; from < loans.size(); from += CHUNK_SIZE) {
+            int to = Math.min(loans.size(), from + CHUNK_SIZE);
+            List<Loan> chunk = loans.subList(from, to);
+            try {
+                List<LoanResponseDTO> saved = transactionTemplate.execute(status -> insertChunk(chunk));
+                for (int j = 0; j < saved.size(); j++) {
+                    savedRows[indexes.get(from + j)] = saved.get(j);
+                    touchedUsers.add(saved.get(j).getUsername());
+                }
+            } catch (RuntimeException e) {
+                log.error("Error al guardar el tramo [{}, {}) del alta masiva", from, to, e);
+                for (int j = from; j < to; j++) {
+                    errors[indexes.get(j)] = SAVE_FAILED;
+                }
+            }
+        }
+
+        if (!touchedUsers.isEmpty()) {
+            evictCaches(touchedUsers, List.of());
+        }
+        return new Rows(savedRows, errors);
+    }
+
+    public LoanBulkReviewResultDTO review(List<LoanBulkReviewItemDTO> items, AuthenticatedUser principal) {
+        long start = System.nanoTime();
+        String username = principal.getUsername();
+
+        LoanBulkReviewResultDTO.Outcome[] outcomes = new LoanBulkReviewResultDTO.Outcome[items.size()];
+        Map<Long, Integer> positions = new LinkedHashMap<>();
+        List<Object[]> updates = new ArrayList<>();
+        LocalDateTime reviewedAt = LocalDateTime.now();
+
+        for (int i = 0; i < items.size(); i++) {
+            LoanBulkReviewItemDTO item = items.get(i);
+            Long loanId = item.getLoanId();
+            LoanStatus status = parseAction(item.getAction());
+            if (status == null) {
+                outcomes[i] = outcome(loanId, LoanBulkReviewResultDTO.Status.INVALID_ACTION,
+                        "Acción inválida. Use APPROVED o REJECTED");
+                continue;
+            }
+            if (positions.putIfAbsent(loanId, i) != null) {
+                outcomes[i] = outcome(loanId, LoanBulkReviewResultDTO.Status.DUPLICATE,
+                        "Préstamo repetido en la petición");
+                continue;
+            }
+            String reason = status == LoanStatus.REJECTED ? item.getRejectionReason() : null;
+            Timestamp timestamp = Timestamp.valueOf(reviewedAt);
+            updates.add(new Object[]{status.name(), reason, timestamp, principal.getId(), timestamp, loanId,
+                    LoanStatus.PENDING.name()});
+        }
+
+        List<LoanResponseDTO> reviewed = new ArrayList<>();
+        if (!positions.isEmpty()) {
+            Set<Long> applied = new HashSet<>();
+            List<LoanResponseDTO> rows = transactionTemplate.execute(status -> {
+                int[] counts = jdbcTemplate.batchUpdate(REVIEW_PENDING_SQL, updates);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        applied.add((Long) updates.get(i)[5]);
+                    }
+                }
+                List<LoanResponseDTO> current = loanRepository.findRowsByIdIn(positions.keySet());
+                List<LoanResponseDTO> changed = current.stream()
+                        .filter(loan -> applied.contains(loan.getId()))
+                        .toList();
+                if (!changed.isEmpty()) {
+                    eventPublisher.publishEvent(new LoansReviewedEvent(changed));
+                }
+                return current;
+            });
+
+            for (LoanResponseDTO loan : rows) {
+                int index = positions.remove(loan.getId());
+                if (applied.contains(loan.getId())) {
+                    outcomes[index] = outcome(loan.getId(), LoanBulkReviewResultDTO.Status.valueOf(loan.getStatus()), null);
+                    reviewed.add(loan);
+                } else {
+                    outcomes[index] = outcome(loan.getId(), LoanBulkReviewResultDTO.Status.ALREADY_REVIEWED,
+                            "Este préstamo ya ha sido revisado");
+                }
+            }
+            // Lo que queda sin fila en la base de datos no existe
+            positions.forEach((loanId, index) -> outcomes[index] =
+                    outcome(loanId, LoanBulkReviewResultDTO.Status.NOT_FOUND, "Préstamo no encontrado"));
+        }
+
+        if (!reviewed.isEmpty()) {
+            evictCaches(reviewed.stream().map(LoanResponseDTO::getUsername).collect(Collectors.toSet()),
+                    reviewed.stream().map(LoanResponseDTO::getId).toList());
+        }
+
+        int approved = (int) reviewed.stream().filter(loan -> "APPROVED".equals(loan.getStatus())).count();
+        int rejected = reviewed.size() - approved;
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Revisión masiva por {}: {} recibidas, {} aprobadas, {} rechazadas, {} sin aplicar en {} ms",
+                username, items.size(), approved, rejected, items.size() - reviewed.size(), elapsedMillis);
+
+        return LoanBulkReviewResultDTO.builder()
+                .received(items.size())
+                .approved(approved)
+                .rejected(rejected)
+                .failed(items.size() - reviewed.size())
+                .results(Arrays.asList(outcomes))
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    private static LoanStatus parseAction(String action) {
+        if ("APPROVED".equalsIgnoreCase(action)) {
+            return LoanStatus.APPROVED;
+        }
+        if ("REJECTED".equalsIgnoreCase(action)) {
+            return LoanStatus.REJECTED;
+        }
+        return null;
+    }
+
+    private static LoanBulkReviewResultDTO.Outcome outcome(Long loanId, LoanBulkReviewResultDTO.Status status,
+                                                           String message) {
+        return new LoanBulkReviewResultDTO.Outcome(loanId, status, message);
+    }
+
+    // Dentro de la transacción del tramo: los INSERT salen en lotes al hacer flush
+    private List<LoanResponseDTO> insertChunk(List<Loan> chunk) {
+        loanRepository.saveAll(chunk);
+        loanRepository.flush();
+        List<LoanResponseDTO> saved = chunk.stream().map(LoanResponseDTO::fromEntity).toList();
+        eventPublisher.publishEvent(new LoansImportedEvent(saved));
+        return saved;
+    }
+
+    private Map<String, User> resolveUsers(List<LoanBulkItemDTO> items, Map<String, User> knownUsers) {
+        List<String> usernames = items.stream()
+                .filter(Objects::nonNull)
+                .map(LoanBulkItemDTO::getUsername)
+                .filter(Objects::nonNull)
+                .filter(username -> !knownUsers.containsKey(username))
+                .distinct()
+                .toList();
+
+        Map<String, User> users = new HashMap<>(knownUsers);
+        for (int from = 0; from < usernames.size(); from += USER_LOOKUP_SIZE) {
+            List<String> page = usernames.subList(from, Math.min(usernames.size(), from + USER_LOOKUP_SIZE));
+            userRepository.findAllWithRolesByUsernameIn(page).forEach(user -> users.put(user.getUsername(), user));
+        }
+        return users;
+    }
+
+    private String validate(LoanBulkItemDTO item, Map<String, User> users) {
+        if (item == null) {
+            return "Fila vacía";
+        }
+        Set<ConstraintViolation<LoanBulkItemDTO>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        User user = users.get(item.getUsername());
+        if (user == null) {
+            return "Usuario no encontrado";
+        }
+        if (user.getRoles().contains("ADMIN")) {
+            return "Los administradores no pueden solicitar préstamos";
+        }
+        return null;
+    }
+
+    private void evictCaches(Set<String> usernames, Collection<Long> loanIds) {
+        Cache loans = cacheManager.getCache("loans");
+        if (loans != null && !loanIds.isEmpty()) {
+            if (loanIds.size() > LOAN_EVICTION_THRESHOLD) {
+                loans.clear();
+            } else {
+                loanIds.forEach(loans::evict);
+            }
+        }
+        Cache userLoans = cacheManager.getCache("userLoans");
+        if (userLoans != null) {
+            if (usernames.size() > USER_EVICTION_THRESHOLD) {
+                userLoans.clear();
+            } else {
+                usernames.forEach(userLoans::evict);
+            }
+        }
+        Cache adminLoans = cacheManager.getCache("adminLoans");
+        if (adminLoans != null) {
+            adminLoans.evict("all");
+            adminLoans.evict("pending");
+        }
+    }
+}
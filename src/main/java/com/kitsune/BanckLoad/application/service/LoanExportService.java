@@ -0,0 +1,165 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.datasource.ReportingPool;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación de préstamos escrita fila a fila en la respuesta: el cursor de la base de datos y el búfer
+ * de salida son lo único que vive en memoria, sea cual sea el número de préstamos exportados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    static final String CSV_HEADER = "id,userId,username,amount,term,status,requestDate,reviewedAt," +
+            "reviewedBy,rejectionReason,purpose";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Límites por defecto del rango de fechas: la consulta siempre lleva ambos extremos
+    private static final LocalDateTime MIN_DATE = LocalDate.of(1970, 1, 1).atStartOfDay();
+    private static final LocalDateTime MAX_DATE = LocalDate.of(9999, 12, 31).atStartOfDay();
+
+    private final LoanRepository loanRepository;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Escribe los préstamos filtrados en out, ordenados por id. Las fechas son días completos: to es inclusivo.
+     *
+     * @return número de préstamos exportados
+     */
+    @ReportingPool
+    @Transactional(readOnly = true)
+    public long export(Format format, Set<LoanStatus> statuses, LocalDate from, LocalDate to,
+                       boolean gzip, OutputStream out) throws IOException {
+        Set<LoanStatus> filter = statuses == null || statuses.isEmpty()
+                ? EnumSet.allOf(LoanStatus.class)
+                : EnumSet.copyOf(statuses);
+        LocalDateTime fromDate = from != null ? from.atStartOfDay() : MIN_DATE;
+        LocalDateTime toDate = to != null ? to.plusDays(1).atStartOfDay() : MAX_DATE;
+
+        long start = System.nanoTime();
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        long rows = 0;
+        try (Stream<LoanResponseDTO> loans = loanRepository.streamForExport(filter, fromDate, toDate)) {
+            Iterator<LoanResponseDTO> iterator = loans.iterator();
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            ObjectWriter jsonWriter = jsonMapper.writer();
+            while (iterator.hasNext()) {
+                LoanResponseDTO loan = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsv(writer, loan);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(loan));
+                }
+                writer.write('\n');
+                rows++;
+            }
+        }
+
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+        log.info("Exportación {} completada: {} préstamos en {} ms", format, rows,
+                (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private static void writeCsv(Writer writer, LoanResponseDTO loan) throws IOException {
+        writer.write(String.valueOf(loan.getId()));
+        writer.write(',');
+        writer.write(value(loan.getUserId()));
+        writer.write(',');
+        writeText(writer, loan.getUsername());
+        writer.write(',');
+        writer.write(loan.getAmount() != null ? loan.getAmount().toPlainString() : "");
+        writer.write(',');
+        writer.write(value(loan.getTerm()));
+        writer.write(',');
+        writer.write(value(loan.getStatus()));
+        writer.write(',');
+        writer.write(value(loan.getRequestDate()));
+        writer.write(',');
+        writer.write(value(loan.getReviewedAt()));
+        writer.write(',');
+        writeText(writer, loan.getReviewedByUsername());
+        writer.write(',');
+        writeText(writer, loan.getRejectionReason());
+        writer.write(',');
+        writeText(writer, loan.getPurpose());
+    }
+
+    private static String value(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    // Texto libre: entre comillas si hace falta (RFC 4180) y sin fórmulas al abrirlo en una hoja de cálculo
+    static void writeText(Writer writer, String text) throws IOException {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        char first = text.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        boolean quote = formula || text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,226 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanBulkItemDTO;
+import com.kitsune.BanckLoad.application.dto.LoanRequestDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.exception.LoanIntakeRejectedException;
+import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Admisión de solicitudes de préstamo por lotes (group commit). Con loans.intake.enabled cada solicitud
+ * entra en una cola acotada y un único hilo escritor la vacía en microlotes de hasta max-batch préstamos
+ * o max-wait de espera: se insertan juntos con el alta masiva, las cachés se invalidan una vez por lote
+ * y cada llamante recibe su préstamo en el futuro devuelto.
+ * <p>
+ * Si la cola está llena la solicitud se rechaza al momento (503) en lugar de acumular latencia.
+ * Desactivada, las solicitudes siguen el camino síncrono de {@link LoanService#requestLoan}.
+ */
+@Service
+@Slf4j
+public class LoanIntakeService implements SmartLifecycle {
+
+    private final LoanService loanService;
+    private final LoanBulkService loanBulkService;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Pending> queue;
+    // Las solicitudes entran con el de lectura y stop() cierra la admisión con el de escritura:
+    // ninguna queda en cola después de la última pasada del escritor sin que nadie complete su futuro
+    private final ReentrantReadWriteLock admission = new ReentrantReadWriteLock();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public LoanIntakeService(LoanService loanService,
+                             LoanBulkService loanBulkService,
+                             @Value("${loans.intake.enabled:false}") boolean enabled,
+                             @Value("${loans.intake.capacity:10000}") int capacity,
+                             @Value("${loans.intake.max-batch:500}") int maxBatch,
+                             @Value("${loans.intake.max-wait:PT0.01S}") Duration maxWait) {
+        this.loanService = loanService;
+        this.loanBulkService = loanBulkService;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    private record Pending(LoanBulkItemDTO item, AuthenticatedUser principal,
+                           CompletableFuture<LoanResponseDTO> future) {
+    }
+
+    public CompletableFuture<LoanResponseDTO> submit(LoanRequestDTO request, AuthenticatedUser principal) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(loanService.requestLoan(request, principal));
+        }
+        String username = principal.getUsername();
+        if (principal.isAdmin()) {
+            throw new RuntimeException("Los administradores no pueden solicitar préstamos");
+        }
+        LoanBulkItemDTO item = LoanBulkItemDTO.builder()
+                .username(username)
+                .amount(request.getAmount())
+                .term(request.getTerm())
+                .purpose(request.getPurpose())
+                .build();
+        Pending pending = new Pending(item, principal, new CompletableFuture<>());
+        admission.readLock().lock();
+        try {
+            if (!running) {
+                throw new LoanIntakeRejectedException("El servicio de solicitudes se está deteniendo, inténtelo más tarde");
+            }
+            if (!queue.offer(pending)) {
+                log.warn("Cola de solicitudes llena ({}), solicitud de {} rechazada", queue.size(), username);
+                throw new LoanIntakeRejectedException("Demasiadas solicitudes en curso, inténtelo más tarde");
+            }
+        } finally {
+            admission.readLock().unlock();
+        }
+        return pending.future();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "loan-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Cola de solicitudes de préstamo activa: capacidad {}, lotes de hasta {}",
+                queue.remainingCapacity(), maxBatch);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        // Tras cerrar la admisión ya no entra nada: el escritor termina de vaciar la cola antes de salir
+        admission.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            admission.writeLock().unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Lo que el escritor no llegó a recoger (interrumpido o fuera de plazo) se rechaza
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        reject(left);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Lo que ya está en cola sale sin esperar; el resto hasta completar el lote o agotar max-wait
+                queue.drainTo(batch, maxBatch - batch.size());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // Cada poll posterior fallaría al momento: se cierra la admisión, se rechaza lo recogido y lo
+                // que quede en cola y el escritor termina
+                Thread.currentThread().interrupt();
+                admission.writeLock().lock();
+                try {
+                    running = false;
+                } finally {
+                    admission.writeLock().unlock();
+                }
+                queue.drainTo(batch);
+                reject(batch);
+                log.warn("Escritor de solicitudes interrumpido: {} solicitudes rechazadas", batch.size());
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static void reject(List<Pending> pending) {
+        pending.forEach(request -> request.future().completeExceptionally(
+                new LoanIntakeRejectedException("El servicio de solicitudes se ha detenido, inténtelo más tarde")));
+    }
+
+    private void write(List<Pending> batch) {
+        List<LoanBulkItemDTO> items = batch.stream().map(Pending::item).toList();
+        // Los usuarios del lote salen de sus principales: el lote no consulta la tabla users
+        Map<String, User> users = new HashMap<>();
+        batch.forEach(pending -> users.putIfAbsent(pending.principal().getUsername(), reference(pending.principal())));
+        try {
+            LoanBulkService.Rows rows = loanBulkService.insert(items, users);
+            for (int i = 0; i < batch.size(); i++) {
+                if (rows.saved()[i] != null) {
+                    batch.get(i).future().complete(rows.saved()[i]);
+                } else {
+                    batch.get(i).future().completeExceptionally(new RuntimeException(rows.errors()[i]));
+                }
+            }
+            log.debug("Lote de solicitudes confirmado: {} préstamos, {} en cola", batch.size(), queue.size());
+        } catch (RuntimeException e) {
+            log.error("Error al procesar un lote de {} solicitudes", batch.size(), e);
+            batch.forEach(pending -> pending.future().completeExceptionally(
+                    new RuntimeException(LoanBulkService.SAVE_FAILED)));
+        }
+    }
+
+    // Usuario separado con el id del principal: basta para la clave foránea del INSERT
+    private static User reference(AuthenticatedUser principal) {
+        return User.builder()
+                .id(principal.getId())
+                .username(principal.getUsername())
+                .roles(principal.getRoles())
+                .enabled(principal.isEnabled())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lectura de un préstamo por id para la región "loans". La entrada solo depende del id y lleva el id del
+ * titular (userId): los permisos se comprueban en LoanService en cada acierto, nunca al poblar la caché.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanLookupService {
+
+    private final LoanRepository loanRepository;
+
+    // sync: con varias peticiones del mismo id en un fallo solo una consulta la base de datos
+    @Cacheable(value = "loans", key = "#id", sync = true)
+    public LoanResponseDTO findLoan(Long id) {
+        return loanRepository.findRowById(id)
+                .orElseThrow(() -> new RuntimeException("Préstamo no encontrado"));
+    }
+}
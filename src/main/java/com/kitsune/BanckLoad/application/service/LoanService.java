@@ -1,45 +1,70 @@
 package com.kitsune.BanckLoad.application.service;
 
+import com.kitsune.BanckLoad.application.dto.LoanCursor;
+import com.kitsune.BanckLoad.application.dto.LoanPageDTO;
 import com.kitsune.BanckLoad.application.dto.LoanRequestDTO;
 import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
 import com.kitsune.BanckLoad.application.dto.LoanReviewDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.application.exception.LoanReviewConflictException;
 import com.kitsune.BanckLoad.domain.model.Loan;
 import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
 import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.datasource.ReportingPool;
 import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
 import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "bankload.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class LoanService {
 
+    // Regiones de caché: "loans" por id, "userLoans" por username y "adminLoans" ('all', 'pending').
+    // Cada escritura invalida solo las claves afectadas, nunca la región completa.
+    // Solo la primera página con el tamaño por defecto se cachea: es la que piden los dashboards
+    private static final String FIRST_DEFAULT_PAGE =
+            "#cursor == null && #size == T(com.kitsune.BanckLoad.application.dto.LoanPageDTO).DEFAULT_SIZE";
+
     private final LoanRepository loanRepository;
     private final UserRepository userRepository;
+    private final LoanLookupService loanLookupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
-    @CacheEvict(value = {"loans", "statistics"}, allEntries = true)
-    public LoanResponseDTO requestLoan(LoanRequestDTO request, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    @Caching(evict = {
+            @CacheEvict(value = "userLoans", key = "#principal.username"),
+            @CacheEvict(value = "adminLoans", key = "'all'"),
+            @CacheEvict(value = "adminLoans", key = "'pending'")
+    })
+    public LoanResponseDTO requestLoan(LoanRequestDTO request, AuthenticatedUser principal) {
+        String username = principal.getUsername();
 
         // Validar que el usuario no sea administrador
-        if (user.getRoles().contains("ADMIN")) {
+        if (principal.isAdmin()) {
             log.warn("Intento de solicitud de préstamo por administrador: {}", username);
             throw new RuntimeException("Los administradores no pueden solicitar préstamos");
         }
 
+        // Referencia sin consulta: el INSERT solo necesita el id del usuario
+        User user = userRepository.getReferenceById(principal.getId());
+
         Loan loan = Loan.builder()
                 .amount(request.getAmount())
                 .term(request.getTerm())
@@ -53,95 +78,113 @@ public class LoanService {
         log.info("Préstamo solicitado: ID={}, Usuario={}, Monto={}",
                 loan.getId(), username, request.getAmount());
 
-        return LoanResponseDTO.fromEntity(loan);
+        LoanResponseDTO response = LoanResponseDTO.fromEntity(loan, username);
+        eventPublisher.publishEvent(new LoanCreatedEvent(response));
+        return response;
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "loans", key = "#username")
-    public List<LoanResponseDTO> getUserLoans(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
+    @Cacheable(value = "userLoans", key = "#username", condition = FIRST_DEFAULT_PAGE)
+    public LoanPageDTO getUserLoans(String username, String cursor, int size) {
         log.info("Consultando préstamos del usuario: {}", username);
-        return loanRepository.findByUser(user).stream()
-                .map(LoanResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+        int limit = LoanPageDTO.normalizeSize(size);
+        LoanCursor after = LoanCursor.decode(cursor);
+        List<LoanResponseDTO> rows = after == null
+                ? loanRepository.findFirstPageByUsername(username, Limit.of(limit + 1))
+                : loanRepository.findPageByUsernameAfter(username, after.getRequestDate(), after.getId(),
+                        Limit.of(limit + 1));
+        return LoanPageDTO.of(rows, limit);
     }
 
+    @ReportingPool
     @Transactional(readOnly = true)
-    @Cacheable(value = "loans", key = "'all'")
-    public List<LoanResponseDTO> getAllLoans() {
+    @Cacheable(value = "adminLoans", key = "'all'", condition = FIRST_DEFAULT_PAGE)
+    public LoanPageDTO getAllLoans(String cursor, int size) {
         log.info("Consultando todos los préstamos");
-        return loanRepository.findAll().stream()
-                .map(LoanResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+        int limit = LoanPageDTO.normalizeSize(size);
+        LoanCursor after = LoanCursor.decode(cursor);
+        List<LoanResponseDTO> rows = after == null
+                ? loanRepository.findFirstPage(Limit.of(limit + 1))
+                : loanRepository.findPageAfter(after.getRequestDate(), after.getId(), Limit.of(limit + 1));
+        return LoanPageDTO.of(rows, limit);
     }
 
+    @ReportingPool
     @Transactional(readOnly = true)
-    @Cacheable(value = "loans", key = "'pending'")
-    public List<LoanResponseDTO> getPendingLoans() {
+    @Cacheable(value = "adminLoans", key = "'pending'", condition = FIRST_DEFAULT_PAGE)
+    public LoanPageDTO getPendingLoans(String cursor, int size) {
         log.info("Consultando préstamos pendientes");
-        return loanRepository.findByStatus(LoanStatus.PENDING).stream()
-                .map(LoanResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+        int limit = LoanPageDTO.normalizeSize(size);
+        LoanCursor after = LoanCursor.decode(cursor);
+        List<LoanResponseDTO> rows = after == null
+                ? loanRepository.findFirstPageByStatus(LoanStatus.PENDING, Limit.of(limit + 1))
+                : loanRepository.findPageByStatusAfter(LoanStatus.PENDING, after.getRequestDate(), after.getId(),
+                        Limit.of(limit + 1));
+        return LoanPageDTO.of(rows, limit);
     }
 
-    @Transactional(readOnly = true)
-    @Cacheable(value = "loans", key = "#id")
-    public LoanResponseDTO getLoanById(Long id) {
-        Loan loan = loanRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Préstamo no encontrado"));
-
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    /**
+     * El préstamo sale de la región "loans" (por id) y el permiso se comprueba en cada llamada contra el
+     * titular guardado en la entrada: un acierto no toca la base de datos ni depende de quién la pobló.
+     */
+    public LoanResponseDTO getLoanById(Long id, AuthenticatedUser principal) {
+        LoanResponseDTO loan = loanLookupService.findLoan(id);
 
         // Verificar que el usuario tenga permiso para ver este préstamo
-        if (!loan.getUser().getId().equals(user.getId()) &&
-            !user.getRoles().contains("ADMIN")) {
+        if (!loan.getUserId().equals(principal.getId()) && !principal.isAdmin()) {
             throw new RuntimeException("No tiene permiso para ver este préstamo");
         }
 
-        return LoanResponseDTO.fromEntity(loan);
+        return loan;
     }
 
     @Transactional
-    @CacheEvict(value = {"loans", "statistics"}, allEntries = true)
-    public LoanResponseDTO reviewLoan(Long loanId, LoanReviewDTO reviewDTO) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User admin = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        Loan loan = loanRepository.findById(loanId)
-                .orElseThrow(() -> new RuntimeException("Préstamo no encontrado"));
-
-        if (loan.getStatus() != LoanStatus.PENDING) {
-            throw new RuntimeException("Este préstamo ya ha sido revisado");
-        }
+    @Caching(
+            put = @CachePut(value = "loans", key = "#loanId"),
+            evict = {
+                    @CacheEvict(value = "userLoans", key = "#result.username"),
+                    @CacheEvict(value = "adminLoans", key = "'all'"),
+                    @CacheEvict(value = "adminLoans", key = "'pending'")
+            })
+    public LoanResponseDTO reviewLoan(Long loanId, LoanReviewDTO reviewDTO, AuthenticatedUser principal) {
+        String username = principal.getUsername();
+        User admin = userRepository.getReferenceById(principal.getId());
 
         // Usar 'action' como campo principal
         String status = reviewDTO.getAction();
         LoanStatus newStatus;
+        String rejectionReason;
 
         if ("APPROVED".equalsIgnoreCase(status)) {
             newStatus = LoanStatus.APPROVED;
-            loan.setRejectionReason(null);
-            log.info("Préstamo aprobado: ID={}, Admin={}", loanId, username);
+            rejectionReason = null;
         } else if ("REJECTED".equalsIgnoreCase(status)) {
             newStatus = LoanStatus.REJECTED;
-            loan.setRejectionReason(reviewDTO.getRejectionReason());
-            log.info("Préstamo rechazado: ID={}, Admin={}, Razón={}",
-                    loanId, username, reviewDTO.getRejectionReason());
+            rejectionReason = reviewDTO.getRejectionReason();
         } else {
             throw new RuntimeException("Acción inválida. Use APPROVED o REJECTED");
         }
 
-        loan.setStatus(newStatus);
-        loan.setReviewedAt(LocalDateTime.now());
-        loan.setReviewedBy(admin);
+        // Transición atómica PENDING -> nuevo estado: de dos revisiones simultáneas solo una cambia la fila
+        int updated = loanRepository.reviewPending(List.of(loanId), newStatus, rejectionReason,
+                LocalDateTime.now(), admin, LoanStatus.PENDING);
+        if (updated == 0) {
+            if (!loanRepository.existsById(loanId)) {
+                throw new RuntimeException("Préstamo no encontrado");
+            }
+            log.warn("Revisión descartada, el préstamo ya no está pendiente: ID={}, Admin={}", loanId, username);
+            throw new LoanReviewConflictException("Este préstamo ya ha sido revisado");
+        }
 
-        loan = loanRepository.save(loan);
+        if (newStatus == LoanStatus.APPROVED) {
+            log.info("Préstamo aprobado: ID={}, Admin={}", loanId, username);
+        } else {
+            log.info("Préstamo rechazado: ID={}, Admin={}, Razón={}", loanId, username, rejectionReason);
+        }
 
-        return LoanResponseDTO.fromEntity(loan);
+        LoanResponseDTO response = loanRepository.findRowById(loanId)
+                .orElseThrow(() -> new RuntimeException("Préstamo no encontrado"));
+        eventPublisher.publishEvent(new LoanReviewedEvent(response, LoanStatus.PENDING));
+        return response;
     }
 }
@@ -1,52 +1,101 @@
 package com.kitsune.BanckLoad.application.service;
 
 import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
-import com.kitsune.BanckLoad.domain.model.Loan;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
 import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
+/**
+ * Acceso reactivo a préstamos sobre el repositorio JPA. Las consultas son bloqueantes, así que se ejecutan
+ * en un scheduler propio con hilos y cola acotados (nunca en el hilo que se suscribe) y los listados se leen
+ * por páginas de keyset a medida que el cliente consume: con backpressure de extremo a extremo solo hay
+ * una página en memoria y ninguna conexión queda retenida mientras el cliente lee despacio.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ReactiveLoanService {
 
+    static final int PAGE_SIZE = 500;
+
     private final LoanRepository loanRepository;
+    private final Scheduler scheduler;
+
+    public ReactiveLoanService(LoanRepository loanRepository,
+                               @Value("${reactive.loans.max-threads:8}") int maxThreads,
+                               @Value("${reactive.loans.max-queued:1000}") int maxQueued) {
+        this.loanRepository = loanRepository;
+        this.scheduler = Schedulers.newBoundedElastic(maxThreads, maxQueued, "reactive-loans");
+    }
+
+    @PreDestroy
+    void dispose() {
+        scheduler.dispose();
+    }
 
     /**
-     * Obtiene todos los préstamos de forma reactiva
+     * Todos los préstamos con alguno de los estados indicados (todos si no se indica ninguno), por id
      */
-    public Flux<LoanResponseDTO> getAllLoansReactive() {
-        return Flux.fromIterable(loanRepository.findAll())
-                .map(LoanResponseDTO::fromEntity)
-                .delayElements(Duration.ofMillis(100))
-                .doOnNext(loan -> log.debug("Procesando préstamo reactivo: {}", loan.getId()));
+    public Flux<LoanResponseDTO> getAllLoansReactive(Set<LoanStatus> statuses) {
+        Set<LoanStatus> filter = statusFilter(statuses);
+        return pages(afterId -> loanRepository.findRowsByStatusAfterId(filter, afterId, Limit.of(PAGE_SIZE)));
     }
 
     /**
-     * Obtiene un préstamo por ID de forma reactiva
+     * Préstamos de un usuario con alguno de los estados indicados, por id
      */
-    public Mono<LoanResponseDTO> getLoanByIdReactive(Long id) {
-        return Mono.fromCallable(() -> loanRepository.findById(id))
-                .flatMap(optionalLoan -> optionalLoan
-                        .map(loan -> Mono.just(LoanResponseDTO.fromEntity(loan)))
-                        .orElse(Mono.error(new RuntimeException("Préstamo no encontrado"))))
-                .doOnSuccess(loan -> log.debug("Préstamo encontrado reactivamente: {}", id));
+    public Flux<LoanResponseDTO> getUserLoansReactive(String username, Set<LoanStatus> statuses) {
+        Set<LoanStatus> filter = statusFilter(statuses);
+        return pages(afterId -> loanRepository.findRowsByUsernameAndStatusAfterId(username, filter, afterId,
+                Limit.of(PAGE_SIZE)));
     }
 
     /**
-     * Búsqueda reactiva de préstamos con procesamiento en paralelo
+     * Obtiene un préstamo por ID de forma reactiva; solo el titular o un administrador pueden verlo
      */
-    public Flux<LoanResponseDTO> searchLoansReactive(String status) {
-        return Flux.fromIterable(loanRepository.findAll())
-                .filter(loan -> status == null || loan.getStatus().name().equalsIgnoreCase(status))
-                .map(LoanResponseDTO::fromEntity)
-                .delayElements(Duration.ofMillis(50));
+    public Mono<LoanResponseDTO> getLoanByIdReactive(Long id, String username, boolean admin) {
+        return Mono.fromCallable(() -> loanRepository.findRowById(id))
+                .subscribeOn(scheduler)
+                .flatMap(optionalLoan -> optionalLoan
+                        .map(Mono::just)
+                        .orElseGet(() -> Mono.error(new RuntimeException("Préstamo no encontrado"))))
+                .flatMap(loan -> admin || loan.getUsername().equals(username)
+                        ? Mono.just(loan)
+                        : Mono.error(new RuntimeException("No tiene permiso para ver este préstamo")))
+                .doOnSuccess(loan -> log.debug("Préstamo encontrado reactivamente: {}", id));
     }
-}
 
+    // Cada página se consulta cuando se pide, en el scheduler acotado; la siguiente continúa tras su último id
+    private Flux<LoanResponseDTO> pages(Function<Long, List<LoanResponseDTO>> page) {
+        return Flux.<List<LoanResponseDTO>, Long>generate(() -> 0L, (afterId, sink) -> {
+                    List<LoanResponseDTO> rows = page.apply(afterId);
+                    if (rows.isEmpty()) {
+                        sink.complete();
+                        return afterId;
+                    }
+                    sink.next(rows);
+                    if (rows.size() < PAGE_SIZE) {
+                        sink.complete();
+                    }
+                    return rows.get(rows.size() - 1).getId();
+                })
+                .subscribeOn(scheduler)
+                .flatMapIterable(Function.identity(), 1);
+    }
+
+    private static Set<LoanStatus> statusFilter(Set<LoanStatus> statuses) {
+        return statuses == null || statuses.isEmpty() ? EnumSet.allOf(LoanStatus.class) : EnumSet.copyOf(statuses);
+    }
+}
@@ -1,39 +1,59 @@
 package com.kitsune.BanckLoad.application.service;
 
+import com.kitsune.BanckLoad.application.dto.LoanAnalyticsDTO;
+import com.kitsune.BanckLoad.application.dto.StatisticsBucketDTO;
 import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
-import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import com.kitsune.BanckLoad.infrastructure.analytics.AnalyticsGroupBy;
+import com.kitsune.BanckLoad.infrastructure.analytics.LoanAggregation;
+import com.kitsune.BanckLoad.infrastructure.analytics.LoanAnalyticsFilter;
+import com.kitsune.BanckLoad.infrastructure.analytics.LoanColumnStore;
+import com.kitsune.BanckLoad.infrastructure.datasource.ReportingPool;
+import com.kitsune.BanckLoad.infrastructure.statistics.LoanStatisticsCounters;
+import com.kitsune.BanckLoad.infrastructure.statistics.LoanStatisticsRollups;
+import com.kitsune.BanckLoad.infrastructure.statistics.RollupBucket;
+import com.kitsune.BanckLoad.infrastructure.statistics.RollupGranularity;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Estadísticas de préstamos leídas de los contadores incrementales (ver LoanStatisticsCounters) y de los
+ * rollups por periodo (ver LoanStatisticsRollups): cada consulta son lecturas de hash en Redis, sin
+ * recuentos sobre la tabla de préstamos. La analítica ad hoc se resuelve en memoria sobre LoanColumnStore.
+ */
 @Service
+@Timed(value = "bankload.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class StatisticsService {
 
-    private final LoanRepository loanRepository;
+    // Un año de días; semanas y meses cubren rangos mayores con menos buckets
+    public static final int MAX_BUCKETS = 366;
 
-    @Cacheable(value = "statistics", key = "'global'")
-    @Transactional(readOnly = true)
+    private final LoanStatisticsCounters counters;
+    private final LoanStatisticsRollups rollups;
+    private final LoanColumnStore columnStore;
+
+    @ReportingPool
     public Map<String, Object> getGlobalStatistics() {
-        log.info("Calculando estadísticas globales desde la base de datos");
+        log.debug("Consultando estadísticas globales");
 
-        Map<String, Object> stats = new HashMap<>();
+        Map<LoanStatus, Long> counts = counters.getGlobalCounts();
+        Map<String, Object> stats = toStatistics(counts);
 
-        long totalLoans = loanRepository.count();
-        long approvedLoans = loanRepository.countByStatus(LoanStatus.APPROVED);
-        long pendingLoans = loanRepository.countByStatus(LoanStatus.PENDING);
-        long rejectedLoans = loanRepository.countByStatus(LoanStatus.REJECTED);
-
-        stats.put("totalLoans", totalLoans);
-        stats.put("approvedLoans", approvedLoans);
-        stats.put("pendingLoans", pendingLoans);
-        stats.put("rejectedLoans", rejectedLoans);
+        long totalLoans = (long) stats.get("totalLoans");
+        long approvedLoans = counts.get(LoanStatus.APPROVED);
+        long rejectedLoans = counts.get(LoanStatus.REJECTED);
 
         // Calcular porcentajes
         if (totalLoans > 0) {
@@ -47,24 +67,110 @@ public class StatisticsService {
         return stats;
     }
 
-    @Cacheable(value = "statistics", key = "'user:' + #username")
-    @Transactional(readOnly = true)
     public Map<String, Object> getUserStatistics(String username) {
-        log.info("Calculando estadísticas del usuario: {}", username);
+        log.debug("Consultando estadísticas del usuario: {}", username);
+        return toStatistics(counters.getUserCounts(username));
+    }
 
-        Map<String, Object> stats = new HashMap<>();
+    public List<StatisticsBucketDTO> getRollups(RollupGranularity granularity, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("La fecha inicial debe ser anterior o igual a la final");
+        }
+        long buckets = switch (granularity) {
+            case DAY -> ChronoUnit.DAYS.between(from, to) + 1;
+            case WEEK -> ChronoUnit.WEEKS.between(granularity.bucketStart(from), to) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(granularity.bucketStart(from), to) + 1;
+        };
+        if (buckets > MAX_BUCKETS) {
+            throw new RuntimeException("El rango solicitado supera el máximo de " + MAX_BUCKETS + " periodos");
+        }
 
-        long userTotalLoans = loanRepository.countByUser_Username(username);
-        long userApprovedLoans = loanRepository.countByUser_UsernameAndStatus(username, LoanStatus.APPROVED);
-        long userPendingLoans = loanRepository.countByUser_UsernameAndStatus(username, LoanStatus.PENDING);
-        long userRejectedLoans = loanRepository.countByUser_UsernameAndStatus(username, LoanStatus.REJECTED);
+        log.debug("Consultando rollups {} de {} a {}", granularity, from, to);
+        return rollups.getRange(granularity, from, to).stream()
+                .map(StatisticsService::toBucket)
+                .toList();
+    }
 
-        stats.put("totalLoans", userTotalLoans);
-        stats.put("approvedLoans", userApprovedLoans);
-        stats.put("pendingLoans", userPendingLoans);
-        stats.put("rejectedLoans", userRejectedLoans);
+    @ReportingPool
+    public int rebuildRollups() {
+        return rollups.rebuild();
+    }
+
+    public LoanAnalyticsDTO getAnalytics(LoanAnalyticsFilter filter, AnalyticsGroupBy groupBy) {
+        long start = System.nanoTime();
+        LoanAggregation aggregation = columnStore.aggregate(filter, groupBy);
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+        log.debug("Analítica de préstamos: {} de {} filas en {} µs",
+                aggregation.getCount(), aggregation.getScannedRows(), elapsedMicros);
+
+        long count = aggregation.getCount();
+        Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+        aggregation.getPercentileCents().forEach((percentile, cents) ->
+                percentiles.put("p" + percentile, BigDecimal.valueOf(cents, 2)));
+
+        return LoanAnalyticsDTO.builder()
+                .loaded(columnStore.isLoaded())
+                .scannedLoans(aggregation.getScannedRows())
+                .matchedLoans(count)
+                .totalAmount(BigDecimal.valueOf(aggregation.getSumCents(), 2))
+                .averageAmount(average(aggregation.getSumCents(), count))
+                .minAmount(BigDecimal.valueOf(aggregation.getMinCents(), 2))
+                .maxAmount(BigDecimal.valueOf(aggregation.getMaxCents(), 2))
+                .averageTerm(count > 0 ? (double) aggregation.getTermSum() / count : 0.0)
+                .amountPercentiles(percentiles)
+                .groupBy(groupBy.name())
+                .groups(aggregation.getGroups().stream()
+                        .map(group -> LoanAnalyticsDTO.Group.builder()
+                                .key(groupKey(groupBy, group.getKey()))
+                                .count(group.getCount())
+                                .totalAmount(BigDecimal.valueOf(group.getSumCents(), 2))
+                                .averageAmount(average(group.getSumCents(), group.getCount()))
+                                .build())
+                        .toList())
+                .elapsedMicros(elapsedMicros)
+                .build();
+    }
 
+    private static String groupKey(AnalyticsGroupBy groupBy, long key) {
+        return groupBy == AnalyticsGroupBy.STATUS ? LoanStatus.values()[(int) key].name() : String.valueOf(key);
+    }
+
+    private static BigDecimal average(long sumCents, long count) {
+        if (count == 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return BigDecimal.valueOf(sumCents, 2).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    private static StatisticsBucketDTO toBucket(RollupBucket bucket) {
+        BigDecimal totalAmount = BigDecimal.valueOf(bucket.getAmountCents(), 2);
+        long requested = bucket.getRequested();
+        long reviewed = bucket.getApproved() + bucket.getRejected();
+
+        return StatisticsBucketDTO.builder()
+                .start(bucket.getStart())
+                .end(bucket.getEnd())
+                .requestedLoans(requested)
+                .totalAmount(totalAmount)
+                .averageAmount(average(bucket.getAmountCents(), requested))
+                .averageTerm(requested > 0 ? (double) bucket.getTermSum() / requested : 0.0)
+                .approvedLoans(bucket.getApproved())
+                .rejectedLoans(bucket.getRejected())
+                .approvalRate(reviewed > 0 ? (bucket.getApproved() * 100.0) / reviewed : 0.0)
+                .rejectionRate(reviewed > 0 ? (bucket.getRejected() * 100.0) / reviewed : 0.0)
+                .build();
+    }
+
+    private static Map<String, Object> toStatistics(Map<LoanStatus, Long> counts) {
+        long approvedLoans = counts.get(LoanStatus.APPROVED);
+        long pendingLoans = counts.get(LoanStatus.PENDING);
+        long rejectedLoans = counts.get(LoanStatus.REJECTED);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalLoans", approvedLoans + pendingLoans + rejectedLoans);
+        stats.put("approvedLoans", approvedLoans);
+        stats.put("pendingLoans", pendingLoans);
+        stats.put("rejectedLoans", rejectedLoans);
         return stats;
     }
 }
-
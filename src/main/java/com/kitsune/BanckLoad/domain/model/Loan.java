@@ -21,8 +21,12 @@ import java.time.LocalDateTime;
 @Builder
 public class Loan implements Serializable {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Secuencia con pool de 50 ids: permite agrupar los INSERT en lotes JDBC (IDENTITY lo impide)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loans_seq")
+    @SequenceGenerator(name = "loans_seq", sequenceName = "loans_seq", allocationSize = Loan.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull(message = "El monto es obligatorio")
@@ -0,0 +1,75 @@
+package com.kitsune.BanckLoad.infrastructure.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Histograma de importes en céntimos con cubos de ancho logarítmico: cada cubo cubre un factor
+ * (1 + α) / (1 - α) y los cuantiles se devuelven con un error relativo de como mucho α (1 %), ocupe lo que
+ * ocupe el tramo. Un recorrido guarda un contador por cubo en lugar de copiar los importes, y dos
+ * histogramas se combinan sumando sus contadores. Los importes menores que 1 céntimo comparten el cubo 0.
+ * No es thread-safe.
+ */
+final class AmountSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // Long.MAX_VALUE cae en el cubo ~2.200: el array crece hasta el mayor cubo visto
+    private static final int INITIAL_BUCKETS = 1_024;
+
+    private long[] counts = new long[INITIAL_BUCKETS];
+    private long count;
+
+    void add(long cents) {
+        int bucket = bucket(cents);
+        if (bucket >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+        }
+        counts[bucket]++;
+        count++;
+    }
+
+    void merge(AmountSketch other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int bucket = 0; bucket < other.counts.length; bucket++) {
+            counts[bucket] += other.counts[bucket];
+        }
+        count += other.count;
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * Percentil por rango más cercano: valor representativo del cubo que contiene la fila de rango
+     * ceil(percentile / 100 * count). Sin filas devuelve 0.
+     */
+    long percentile(int percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return value(bucket);
+            }
+        }
+        return value(counts.length - 1);
+    }
+
+    // El cubo i >= 1 cubre (γ^(i-2), γ^(i-1)]; 1 céntimo cae en el cubo 1
+    static int bucket(long cents) {
+        return cents < 1 ? 0 : 1 + (int) Math.ceil(Math.log(cents) / LOG_GAMMA);
+    }
+
+    // Punto del cubo a menos de α de cualquier valor que contenga
+    static long value(int bucket) {
+        return bucket == 0 ? 0 : Math.round(2 * Math.pow(GAMMA, bucket - 1) / (GAMMA + 1));
+    }
+}
@@ -0,0 +1,11 @@
+package com.kitsune.BanckLoad.infrastructure.analytics;
+
+/**
+ * Dimensión de agrupación de las agregaciones de analítica
+ */
+public enum AnalyticsGroupBy {
+    NONE,
+    STATUS,
+    TERM,
+    USER
+}
@@ -0,0 +1,33 @@
+package com.kitsune.BanckLoad.infrastructure.analytics;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una agregación sobre el almacén columnar. Importes en céntimos; los percentiles se
+ * indexan por su valor (50, 90, 99) y se aproximan por rango más cercano sobre un histograma logarítmico,
+ * con un error relativo de como mucho el 1 %.
+ */
+@Value
+public class LoanAggregation {
+    int scannedRows;
+    long count;
+    long sumCents;
+    long minCents;
+    long maxCents;
+    long termSum;
+    Map<Integer, Long> percentileCents;
+    List<Group> groups;
+
+    /**
+     * Grupo de la dimensión pedida: ordinal del estado, plazo en meses o id de usuario
+     */
+    @Value
+    public static class Group {
+        long key;
+        long count;
+        long sumCents;
+    }
+}
@@ -0,0 +1,24 @@
+package com.kitsune.BanckLoad.infrastructure.analytics;
+
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filtro de las agregaciones. Los campos nulos no filtran; el rango de requestDate es [from, to).
+ */
+@Value
+@Builder
+public class LoanAnalyticsFilter {
+    Set<LoanStatus> statuses;
+    LocalDateTime from;
+    LocalDateTime to;
+    Long userId;
+    Integer term;
+    BigDecimal minAmount;
+    BigDecimal maxAmount;
+}
@@ -0,0 +1,481 @@
+package com.kitsune.BanckLoad.infrastructure.analytics;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.application.event.LoansImportedEvent;
+import com.kitsune.BanckLoad.application.event.LoansReviewedEvent;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.datasource.ReportingPool;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanFacts;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copia columnar en memoria de la tabla loans para la analítica de administración: una columna de
+ * primitivos por campo (importe en céntimos, plazo, estado como byte, usuario, fechas en segundos epoch UTC)
+ * y un índice id -> fila. Las agregaciones recorren las columnas en paralelo por tramos, en un pool propio y
+ * acotado, sin tocar la base de datos ni crear objetos por fila; cada tramo resume los importes en un
+ * histograma logarítmico (AmountSketch) para los percentiles.
+ * <p>
+ * Se carga al arrancar por keyset sobre id, se actualiza con los eventos de préstamo de este nodo y se
+ * sincroniza periódicamente por updatedAt para recoger las escrituras de otros nodos. Los préstamos no se
+ * borran en esta aplicación, así que las filas solo se añaden o actualizan.
+ */
+@Component
+@Slf4j
+public class LoanColumnStore {
+
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    public static final int MAX_GROUPS = 100;
+    private static final int[] PERCENTILES = {50, 90, 99};
+
+    private static final int LOAD_BATCH = 5_000;
+    private static final int INITIAL_CAPACITY = 1_024;
+    // Tramo mínimo por tarea paralela: por debajo el reparto cuesta más que el recorrido
+    private static final int MIN_CHUNK = 16_384;
+    // Margen para transacciones que confirman con un updatedAt anterior al último visto
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final LoanRepository loanRepository;
+    private final boolean enabled;
+    private final ThreadPoolExecutor scanners;
+    private final int scanThreads;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columnas protegidas por lock
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] amountCents = new long[INITIAL_CAPACITY];
+    private int[] terms = new int[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private long[] userIds = new long[INITIAL_CAPACITY];
+    private long[] requestEpochs = new long[INITIAL_CAPACITY];
+    private long[] reviewEpochs = new long[INITIAL_CAPACITY];
+    private final LongIntMap rowById = new LongIntMap(INITIAL_CAPACITY);
+    private int size;
+
+    private volatile boolean loaded;
+    // Solo lo usan la carga y la sincronización programada (un único hilo)
+    private LocalDateTime syncedUpTo;
+
+    public LoanColumnStore(LoanRepository loanRepository,
+                           @Value("${analytics.column-store.enabled:true}") boolean enabled,
+                           @Value("${analytics.column-store.scan-threads:0}") int threads,
+                           @Value("${analytics.column-store.scan-queue-capacity:64}") int queueCapacity) {
+        this.loanRepository = loanRepository;
+        this.enabled = enabled;
+        this.scanThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        // Con la cola llena el tramo lo recorre el hilo de la consulta: nunca más de scanThreads hilos del pool
+        this.scanners = new ThreadPoolExecutor(scanThreads, scanThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "column-store-scan-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scanners.shutdownNow();
+    }
+
+    @ReportingPool
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            long afterId = 0;
+            List<LoanFacts> batch;
+            do {
+                batch = loanRepository.findFactsAfterId(afterId, Limit.of(LOAD_BATCH));
+                upsertAll(batch);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == LOAD_BATCH);
+
+            syncedUpTo = startedAt.minus(SYNC_OVERLAP);
+            loaded = true;
+            log.info("Almacén columnar de préstamos cargado: {} filas en {} ms",
+                    size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el almacén columnar de préstamos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recoge las filas modificadas desde la última sincronización (incluidas las de otros nodos)
+     */
+    @Scheduled(fixedDelayString = "${analytics.column-store.sync-interval:PT30S}",
+               initialDelayString = "${analytics.column-store.sync-interval:PT30S}")
+    @ReportingPool
+    public void sync() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            LocalDateTime updatedAt = syncedUpTo;
+            long id = 0;
+            int synced = 0;
+            List<LoanFacts> batch;
+            do {
+                batch = loanRepository.findFactsUpdatedAfter(updatedAt, id, Limit.of(LOAD_BATCH));
+                upsertAll(batch);
+                synced += batch.size();
+                if (!batch.isEmpty()) {
+                    LoanFacts last = batch.get(batch.size() - 1);
+                    updatedAt = last.getUpdatedAt();
+                    id = last.getId();
+                }
+            } while (batch.size() == LOAD_BATCH);
+
+            // La próxima pasada vuelve a leer el margen: reaplicar una fila es idempotente
+            LocalDateTime next = updatedAt.minus(SYNC_OVERLAP);
+            if (next.isAfter(syncedUpTo)) {
+                syncedUpTo = next;
+            }
+            log.debug("Almacén columnar sincronizado: {} filas", synced);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo sincronizar el almacén columnar de préstamos: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanCreated(LoanCreatedEvent event) {
+        apply(event.getLoan());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanReviewed(LoanReviewedEvent event) {
+        apply(event.getLoan());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoansImported(LoansImportedEvent event) {
+        applyAll(event.getLoans());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoansReviewed(LoansReviewedEvent event) {
+        applyAll(event.getLoans());
+    }
+
+    private void applyAll(List<LoanResponseDTO> loans) {
+        if (!enabled) {
+            return;
+        }
+        // Todo el lote bajo un único bloqueo de escritura
+        lock.writeLock().lock();
+        try {
+            for (LoanResponseDTO loan : loans) {
+                upsert(loan);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega las filas que cumplen el filtro. El recorrido se reparte en tramos sobre el pool de recorrido
+     * (no el pool común) mientras se mantiene el bloqueo de lectura; las escrituras esperan a que termine.
+     * Los percentiles salen del histograma combinado de los tramos, con un error relativo de como mucho
+     * AmountSketch.RELATIVE_ACCURACY.
+     */
+    public LoanAggregation aggregate(LoanAnalyticsFilter filter, AnalyticsGroupBy groupBy) {
+        RowFilter rowFilter = new RowFilter(filter);
+        lock.readLock().lock();
+        try {
+            int rows = size;
+            int chunks = Math.max(1, Math.min(scanThreads * 4, rows / MIN_CHUNK));
+            if (chunks == 1) {
+                return scan(rowFilter, groupBy, 0, rows).toAggregation(rows);
+            }
+            int chunkSize = (rows + chunks - 1) / chunks;
+
+            List<Future<Partial>> futures = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int from = chunk * chunkSize;
+                int to = Math.min(rows, from + chunkSize);
+                futures.add(scanners.submit(() -> scan(rowFilter, groupBy, from, to)));
+            }
+            Partial total = new Partial(groupBy);
+            for (Future<Partial> future : futures) {
+                total.merge(join(future, futures));
+            }
+            return total.toAggregation(rows);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Partial join(Future<Partial> future, List<Future<Partial>> all) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            all.forEach(pending -> pending.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Agregación interrumpida", e);
+        } catch (ExecutionException e) {
+            all.forEach(pending -> pending.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Partial scan(RowFilter filter, AnalyticsGroupBy groupBy, int from, int to) {
+        Partial partial = new Partial(groupBy);
+        for (int row = from; row < to; row++) {
+            if (filter.matches(row)) {
+                partial.add(row);
+            }
+        }
+        return partial;
+    }
+
+    private void apply(LoanResponseDTO loan) {
+        if (!enabled || loan.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            upsert(loan);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Llamar con el bloqueo de escritura
+    private void upsert(LoanResponseDTO loan) {
+        upsert(loan.getId(), toCents(loan.getAmount()), loan.getTerm(), LoanStatus.valueOf(loan.getStatus()),
+                loan.getUserId(), loan.getRequestDate(), loan.getReviewedAt());
+    }
+
+    private void upsertAll(List<LoanFacts> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (LoanFacts facts : batch) {
+                upsert(facts.getId(), toCents(facts.getAmount()), facts.getTerm(), facts.getStatus(),
+                        facts.getUserId(), facts.getRequestDate(), facts.getReviewedAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Llamar con el bloqueo de escritura
+    private void upsert(long id, long cents, Integer term, LoanStatus status, Long userId,
+                        LocalDateTime requestDate, LocalDateTime reviewedAt) {
+        int row = rowById.get(id);
+        if (row == LongIntMap.MISSING) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(id, row);
+        }
+        ids[row] = id;
+        amountCents[row] = cents;
+        terms[row] = term != null ? term : 0;
+        statuses[row] = (byte) status.ordinal();
+        userIds[row] = userId != null ? userId : 0;
+        requestEpochs[row] = toEpoch(requestDate);
+        reviewEpochs[row] = toEpoch(reviewedAt);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        terms = Arrays.copyOf(terms, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        requestEpochs = Arrays.copyOf(requestEpochs, capacity);
+        reviewEpochs = Arrays.copyOf(reviewEpochs, capacity);
+    }
+
+    static long toEpoch(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : NO_TIMESTAMP;
+    }
+
+    static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Filtro traducido a primitivos una sola vez por consulta
+     */
+    private final class RowFilter {
+        private final int statusMask;
+        private final long fromEpoch;
+        private final long toEpoch;
+        private final long userId;
+        private final int term;
+        private final long minCents;
+        private final long maxCents;
+
+        RowFilter(LoanAnalyticsFilter filter) {
+            int mask = 0;
+            if (filter.getStatuses() == null || filter.getStatuses().isEmpty()) {
+                mask = ~0;
+            } else {
+                for (LoanStatus status : filter.getStatuses()) {
+                    mask |= 1 << status.ordinal();
+                }
+            }
+            this.statusMask = mask;
+            this.fromEpoch = filter.getFrom() != null ? toEpoch(filter.getFrom()) : Long.MIN_VALUE;
+            this.toEpoch = filter.getTo() != null ? toEpoch(filter.getTo()) : Long.MAX_VALUE;
+            this.userId = filter.getUserId() != null ? filter.getUserId() : 0;
+            this.term = filter.getTerm() != null ? filter.getTerm() : 0;
+            this.minCents = filter.getMinAmount() != null ? toCents(filter.getMinAmount()) : Long.MIN_VALUE;
+            this.maxCents = filter.getMaxAmount() != null ? toCents(filter.getMaxAmount()) : Long.MAX_VALUE;
+        }
+
+        boolean matches(int row) {
+            long requestEpoch = requestEpochs[row];
+            long cents = amountCents[row];
+            return (statusMask & (1 << statuses[row])) != 0
+                    && requestEpoch >= fromEpoch && requestEpoch < toEpoch
+                    && cents >= minCents && cents <= maxCents
+                    && (userId == 0 || userIds[row] == userId)
+                    && (term == 0 || terms[row] == term);
+        }
+    }
+
+    /**
+     * Acumulado de un tramo; los tramos se combinan con merge
+     */
+    private final class Partial {
+        private final AnalyticsGroupBy groupBy;
+        private long count;
+        private long sumCents;
+        private long minCents = Long.MAX_VALUE;
+        private long maxCents = Long.MIN_VALUE;
+        private long termSum;
+        private final AmountSketch amounts = new AmountSketch();
+        // clave -> {count, sumCents}
+        private final Map<Long, long[]> groups = new HashMap<>();
+
+        Partial(AnalyticsGroupBy groupBy) {
+            this.groupBy = groupBy;
+        }
+
+        void add(int row) {
+            long cents = amountCents[row];
+            amounts.add(cents);
+            count++;
+            sumCents += cents;
+            minCents = Math.min(minCents, cents);
+            maxCents = Math.max(maxCents, cents);
+            termSum += terms[row];
+
+            long key = switch (groupBy) {
+                case NONE -> 0;
+                case STATUS -> statuses[row];
+                case TERM -> terms[row];
+                case USER -> userIds[row];
+            };
+            if (groupBy != AnalyticsGroupBy.NONE) {
+                long[] group = groups.computeIfAbsent(key, k -> new long[2]);
+                group[0]++;
+                group[1] += cents;
+            }
+        }
+
+        Partial merge(Partial other) {
+            amounts.merge(other.amounts);
+            count += other.count;
+            sumCents += other.sumCents;
+            minCents = Math.min(minCents, other.minCents);
+            maxCents = Math.max(maxCents, other.maxCents);
+            termSum += other.termSum;
+            other.groups.forEach((key, values) -> groups.merge(key, values, (a, b) -> {
+                a[0] += b[0];
+                a[1] += b[1];
+                return a;
+            }));
+            return this;
+        }
+
+        LoanAggregation toAggregation(int scannedRows) {
+            Map<Integer, Long> percentiles = new LinkedHashMap<>();
+            if (count > 0) {
+                for (int percentile : PERCENTILES) {
+                    // El valor del cubo puede salirse del rango real por el redondeo del histograma
+                    long cents = Math.clamp(amounts.percentile(percentile), minCents, maxCents);
+                    percentiles.put(percentile, cents);
+                }
+            }
+
+            List<LoanAggregation.Group> topGroups = new ArrayList<>(groups.size());
+            groups.forEach((key, values) -> topGroups.add(new LoanAggregation.Group(key, values[0], values[1])));
+            topGroups.sort(Comparator.comparingLong(LoanAggregation.Group::getCount).reversed()
+                    .thenComparingLong(LoanAggregation.Group::getKey));
+
+            return new LoanAggregation(
+                    scannedRows,
+                    count,
+                    sumCents,
+                    count > 0 ? minCents : 0,
+                    count > 0 ? maxCents : 0,
+                    termSum,
+                    percentiles,
+                    List.copyOf(topGroups.subList(0, Math.min(MAX_GROUPS, topGroups.size()))));
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import com.kitsune.BanckLoad.application.dto.LoanPageDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.User;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Codificación binaria etiquetada de los valores cacheados: un byte de tipo seguido del contenido.
+ * Los tipos de la aplicación (LoanResponseDTO, LoanPageDTO, User) tienen etiqueta propia con sus
+ * campos en orden fijo. Cualquier otro tipo se rechaza con SerializationException: no hay recurso a
+ * serialización JDK, que permitiría instanciar clases arbitrarias al leer de Redis.
+ * <p>
+ * Añadir campos a un tipo exige subir CacheValueSerializer.FORMAT_VERSION: los valores con otra
+ * versión se tratan como fallo de caché y se recalculan.
+ */
+final class BinaryCacheCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte BIG_DECIMAL = 6;
+    private static final byte LOCAL_DATE_TIME = 7;
+    private static final byte LIST = 8;
+    private static final byte SET = 9;
+    private static final byte MAP = 10;
+    private static final byte LOAN_RESPONSE = 20;
+    private static final byte LOAN_PAGE = 21;
+    private static final byte USER = 22;
+
+    private BinaryCacheCodec() {
+    }
+
+    static void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            writeString(out, s);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            writeVarLong(out, l);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT);
+            writeVarLong(out, i);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof BigDecimal bd) {
+            out.writeByte(BIG_DECIMAL);
+            writeBigDecimal(out, bd);
+        } else if (value instanceof LocalDateTime dt) {
+            out.writeByte(LOCAL_DATE_TIME);
+            writeDateTime(out, dt);
+        } else if (value instanceof LoanResponseDTO loan) {
+            out.writeByte(LOAN_RESPONSE);
+            writeLoan(out, loan);
+        } else if (value instanceof LoanPageDTO page) {
+            out.writeByte(LOAN_PAGE);
+            writeLoanPage(out, page);
+        } else if (value instanceof User user) {
+            out.writeByte(USER);
+            writeUser(out, user);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            writeCollection(out, list);
+        } else if (value instanceof Set<?> set) {
+            out.writeByte(SET);
+            writeCollection(out, set);
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            writeVarLong(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(out, entry.getKey());
+                write(out, entry.getValue());
+            }
+        } else {
+            throw new SerializationException("Tipo no soportado por la caché: " + value.getClass().getName());
+        }
+    }
+
+    static Object read(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> readString(in);
+            case LONG -> readVarLong(in);
+            case INT -> (int) readVarLong(in);
+            case DOUBLE -> in.readDouble();
+            case BOOLEAN -> in.readBoolean();
+            case BIG_DECIMAL -> readBigDecimal(in);
+            case LOCAL_DATE_TIME -> readDateTime(in);
+            case LOAN_RESPONSE -> readLoan(in);
+            case LOAN_PAGE -> readLoanPage(in);
+            case USER -> readUser(in);
+            case LIST -> readCollection(in, new ArrayList<>());
+            case SET -> readCollection(in, new HashSet<>());
+            case MAP -> readMap(in);
+            default -> throw new IOException("Etiqueta de tipo desconocida en caché: " + tag);
+        };
+    }
+
+    private static void writeLoan(DataOutputStream out, LoanResponseDTO loan) throws IOException {
+        write(out, loan.getId());
+        write(out, loan.getAmount());
+        write(out, loan.getTerm());
+        write(out, loan.getPurpose());
+        write(out, loan.getStatus());
+        write(out, loan.getStatusDisplayName());
+        write(out, loan.getRejectionReason());
+        write(out, loan.getRequestDate());
+        write(out, loan.getReviewedAt());
+        write(out, loan.getReviewedByUsername());
+        write(out, loan.getUserId());
+        write(out, loan.getUsername());
+    }
+
+    private static LoanResponseDTO readLoan(DataInputStream in) throws IOException {
+        return LoanResponseDTO.builder()
+                .id((Long) read(in))
+                .amount((BigDecimal) read(in))
+                .term((Integer) read(in))
+                .purpose((String) read(in))
+                .status((String) read(in))
+                .statusDisplayName((String) read(in))
+                .rejectionReason((String) read(in))
+                .requestDate((LocalDateTime) read(in))
+                .reviewedAt((LocalDateTime) read(in))
+                .reviewedByUsername((String) read(in))
+                .userId((Long) read(in))
+                .username((String) read(in))
+                .build();
+    }
+
+    private static void writeLoanPage(DataOutputStream out, LoanPageDTO page) throws IOException {
+        List<LoanResponseDTO> items = page.getItems() != null ? page.getItems() : List.of();
+        writeVarLong(out, items.size());
+        for (LoanResponseDTO item : items) {
+            writeLoan(out, item);
+        }
+        write(out, page.getNextCursor());
+        out.writeBoolean(page.isHasMore());
+        writeVarLong(out, page.getSize());
+    }
+
+    private static LoanPageDTO readLoanPage(DataInputStream in) throws IOException {
+        int count = (int) readVarLong(in);
+        List<LoanResponseDTO> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(readLoan(in));
+        }
+        return LoanPageDTO.builder()
+                .items(items)
+                .nextCursor((String) read(in))
+                .hasMore(in.readBoolean())
+                .size((int) readVarLong(in))
+                .build();
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        write(out, user.getId());
+        write(out, user.getUsername());
+        write(out, user.getEmail());
+        write(out, user.getPassword());
+        write(out, user.getFullName());
+        write(out, user.getRoles() != null ? new HashSet<>(user.getRoles()) : null);
+        write(out, user.getEnabled());
+        write(out, user.getCreatedAt());
+        write(out, user.getUpdatedAt());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static User readUser(DataInputStream in) throws IOException {
+        return User.builder()
+                .id((Long) read(in))
+                .username((String) read(in))
+                .email((String) read(in))
+                .password((String) read(in))
+                .fullName((String) read(in))
+                .roles((Set<String>) read(in))
+                .enabled((Boolean) read(in))
+                .createdAt((LocalDateTime) read(in))
+                .updatedAt((LocalDateTime) read(in))
+                .build();
+    }
+
+    private static void writeCollection(DataOutputStream out, Collection<?> values) throws IOException {
+        writeVarLong(out, values.size());
+        for (Object value : values) {
+            write(out, value);
+        }
+    }
+
+    private static <C extends Collection<Object>> C readCollection(DataInputStream in, C target) throws IOException {
+        int count = (int) readVarLong(in);
+        for (int i = 0; i < count; i++) {
+            target.add(read(in));
+        }
+        return target;
+    }
+
+    private static Map<Object, Object> readMap(DataInputStream in) throws IOException {
+        int count = (int) readVarLong(in);
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            map.put(read(in), read(in));
+        }
+        return map;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBigDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        writeVarLong(out, value.scale());
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writeVarLong(out, unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readBigDecimal(DataInputStream in) throws IOException {
+        int scale = (int) readVarLong(in);
+        byte[] unscaled = new byte[(int) readVarLong(in)];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        writeVarLong(out, value.toEpochSecond(ZoneOffset.UTC));
+        writeVarLong(out, value.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        long epochSecond = readVarLong(in);
+        int nanos = (int) readVarLong(in);
+        return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+    }
+
+    // Enteros con signo en zigzag + varint: ids, plazos y longitudes pequeñas ocupan 1-3 bytes
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IOException("Varint demasiado largo en caché");
+            }
+            b = in.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    static Object readFrom(byte[] bytes, int offset, int length) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(bytes, offset, length)));
+    }
+}
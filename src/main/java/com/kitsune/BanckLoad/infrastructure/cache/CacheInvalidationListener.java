@@ -0,0 +1,46 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Recibe las invalidaciones de otros nodos y descarta la entrada correspondiente de la L1 local.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final CacheInvalidationPublisher publisher;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = CacheInvalidationMessage.decode(new String(message.getBody(), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            log.warn(e.getMessage());
+            return;
+        }
+
+        if (publisher.isLocal(invalidation)) {
+            return;
+        }
+
+        TwoLevelCache cache = cacheManager.getTwoLevelCache(invalidation.getCacheName());
+        if (cache == null) {
+            return;
+        }
+
+        if (invalidation.isClear()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.getKey());
+        }
+        log.debug("L1 invalidada por otro nodo: {}::{}", invalidation.getCacheName(), invalidation.getKey());
+    }
+}
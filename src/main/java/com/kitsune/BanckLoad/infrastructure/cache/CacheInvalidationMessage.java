@@ -0,0 +1,34 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import lombok.Value;
+
+/**
+ * Mensaje de invalidación de L1 publicado en Redis: "origen|caché|clave" para una clave
+ * o "origen|caché|" (clave nula) para vaciar la región completa.
+ */
+@Value
+public class CacheInvalidationMessage {
+
+    private static final char SEPARATOR = '|';
+
+    String origin;
+    String cacheName;
+    String key;
+
+    public boolean isClear() {
+        return key == null;
+    }
+
+    public String encode() {
+        return origin + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : "");
+    }
+
+    public static CacheInvalidationMessage decode(String raw) {
+        // La clave va al final y puede contener el separador
+        String[] parts = raw.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Mensaje de invalidación inválido: " + raw);
+        }
+        return new CacheInvalidationMessage(parts[0], parts[1], parts[2].isEmpty() ? null : parts[2]);
+    }
+}
@@ -0,0 +1,41 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Publica en Redis las invalidaciones de L1 para que el resto de nodos descarte su copia local.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    public static final String CHANNEL = "cache:invalidation";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public void publishEvict(String cacheName, String key) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, null));
+    }
+
+    public boolean isLocal(CacheInvalidationMessage message) {
+        return nodeId.equals(message.getOrigin());
+    }
+
+    private void publish(CacheInvalidationMessage message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message.encode());
+        } catch (RuntimeException e) {
+            // La escritura en L2 ya se hizo; los demás nodos convergen al expirar su L1
+            log.warn("No se pudo publicar la invalidación de caché {}: {}", message.encode(), e.getMessage());
+        }
+    }
+}
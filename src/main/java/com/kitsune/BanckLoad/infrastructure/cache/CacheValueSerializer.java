@@ -0,0 +1,217 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Serializador de valores de caché para Redis: formato binario compacto y versionado
+ * (ver BinaryCacheCodec), comprimido con Deflate en modo rápido por encima de un umbral.
+ * <p>
+ * Cabecera: magic (1 byte), versión (1 byte), flags (1 byte). Con el flag de compresión le siguen
+ * la longitud sin comprimir (int) y los datos comprimidos. Los valores con otra cabecera
+ * (p. ej. los antiguos en serialización JDK) se leen como fallo de caché.
+ * <p>
+ * Se crea una instancia por región para llevar tamaños y tiempos por región.
+ */
+@Slf4j
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    public static final byte MAGIC = (byte) 0xB7;
+    // 2: sin la etiqueta 127 de serialización JDK; los valores de la versión 1 se recalculan
+    public static final byte FORMAT_VERSION = 2;
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    private static final int HEADER_LENGTH = 3;
+    private static final byte FLAG_COMPRESSED = 0x01;
+
+    private final String region;
+    private final int compressionThreshold;
+
+    private final LongAdder serializations = new LongAdder();
+    private final LongAdder serializedBytes = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder deserializations = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder rejectedPayloads = new LongAdder();
+
+    public CacheValueSerializer(String region) {
+        this(region, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    public CacheValueSerializer(String region, int compressionThreshold) {
+        this.region = region;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        long start = System.nanoTime();
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(buffer);
+            BinaryCacheCodec.write(out, value);
+            out.flush();
+            byte[] payload = buffer.toByteArray();
+
+            byte[] result = payload.length >= compressionThreshold ? compress(payload) : frame(payload);
+
+            long elapsed = System.nanoTime() - start;
+            serializations.increment();
+            serializedBytes.add(result.length);
+            uncompressedBytes.add(payload.length);
+            encodeNanos.add(elapsed);
+            log.debug("Caché {}: serializado en {} bytes ({} sin comprimir) en {} µs",
+                    region, result.length, payload.length, elapsed / 1_000);
+            return result;
+        } catch (IOException e) {
+            throw new SerializationException("No se pudo serializar el valor de la caché " + region, e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC || bytes[1] != FORMAT_VERSION) {
+            // Formato anterior o desconocido: se trata como fallo y se recalcula
+            rejectedPayloads.increment();
+            log.debug("Caché {}: valor con formato no soportado descartado", region);
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object value;
+            if ((bytes[2] & FLAG_COMPRESSED) != 0) {
+                byte[] payload = decompress(bytes);
+                value = BinaryCacheCodec.readFrom(payload, 0, payload.length);
+            } else {
+                value = BinaryCacheCodec.readFrom(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            }
+
+            long elapsed = System.nanoTime() - start;
+            deserializations.increment();
+            decodeNanos.add(elapsed);
+            log.debug("Caché {}: deserializados {} bytes en {} µs", region, bytes.length, elapsed / 1_000);
+            return value;
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("No se pudo deserializar el valor de la caché " + region, e);
+        }
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getSerializations() {
+        return serializations.sum();
+    }
+
+    public long getSerializedBytes() {
+        return serializedBytes.sum();
+    }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    public long getEncodeNanos() {
+        return encodeNanos.sum();
+    }
+
+    public long getDeserializations() {
+        return deserializations.sum();
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    public long getRejectedPayloads() {
+        return rejectedPayloads.sum();
+    }
+
+    private static byte[] frame(byte[] payload) {
+        byte[] result = new byte[HEADER_LENGTH + payload.length];
+        writeHeader(result, (byte) 0);
+        System.arraycopy(payload, 0, result, HEADER_LENGTH, payload.length);
+        return result;
+    }
+
+    private static byte[] compress(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + HEADER_LENGTH + 4);
+            byte[] header = new byte[HEADER_LENGTH + 4];
+            writeHeader(header, FLAG_COMPRESSED);
+            writeInt(header, HEADER_LENGTH, payload.length);
+            out.write(header, 0, header.length);
+
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                out.write(chunk, 0, written);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] bytes) throws DataFormatException, IOException {
+        int offset = HEADER_LENGTH + 4;
+        if (bytes.length < offset) {
+            throw new IOException("Valor comprimido truncado");
+        }
+        int length = readInt(bytes, HEADER_LENGTH);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] payload = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int n = inflater.inflate(payload, read, length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Valor comprimido truncado");
+                }
+                read += n;
+            }
+            return payload;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeHeader(byte[] target, byte flags) {
+        target[0] = MAGIC;
+        target[1] = FORMAT_VERSION;
+        target[2] = flags;
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] source, int offset) {
+        return ((source[offset] & 0xFF) << 24)
+                | ((source[offset + 1] & 0xFF) << 16)
+                | ((source[offset + 2] & 0xFF) << 8)
+                | (source[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,14 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Límites de la L1 de una región: número máximo de entradas y tiempo de vida desde la escritura.
+ */
+@Value(staticConstructor = "of")
+public class LocalCacheSpec {
+    long maximumSize;
+    Duration timeToLive;
+}
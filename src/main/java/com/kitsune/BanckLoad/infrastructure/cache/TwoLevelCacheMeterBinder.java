@@ -0,0 +1,105 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de una región de TwoLevelCache: las comunes de Micrometer (cache.gets con result=hit|miss,
+ * cache.puts, cache.evictions), los aciertos por nivel (cache.level.hits con level=local|remote), el
+ * tamaño de la L1 y, si se conoce el serializador de la región, los bytes escritos en Redis y los
+ * tiempos de (de)serialización.
+ * <p>
+ * El tamaño medio de los valores es rate(cache.payload.serialized.bytes) / rate(cache.payload.encode_count).
+ */
+public class TwoLevelCacheMeterBinder extends CacheMeterBinder<TwoLevelCache> {
+
+    private final CacheValueSerializer serializer;
+
+    public TwoLevelCacheMeterBinder(TwoLevelCache cache, CacheValueSerializer serializer, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.serializer = serializer;
+    }
+
+    // El tamaño de la L2 exigiría recorrer Redis; el de la L1 va en cache.local.size
+    @Override
+    protected Long size() {
+        return null;
+    }
+
+    @Override
+    protected long hitCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getLocalHits() + cache.getRemoteHits() : 0L;
+    }
+
+    @Override
+    protected Long missCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getMisses() : 0L;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getEvictions() : 0L;
+    }
+
+    @Override
+    protected long putCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getPuts() : 0L;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        TwoLevelCache cache = getCache();
+        Tags tags = Tags.of(getTagsWithCacheName());
+
+        FunctionCounter.builder("cache.level.hits", cache, TwoLevelCache::getLocalHits)
+                .tags(tags).tag("level", "local")
+                .description("Aciertos servidos desde la L1 en memoria")
+                .register(registry);
+        FunctionCounter.builder("cache.level.hits", cache, TwoLevelCache::getRemoteHits)
+                .tags(tags).tag("level", "remote")
+                .description("Aciertos servidos desde Redis")
+                .register(registry);
+        Gauge.builder("cache.local.size", cache, TwoLevelCache::getLocalSize)
+                .tags(tags)
+                .description("Entradas estimadas en la L1 de este nodo")
+                .register(registry);
+
+        if (serializer == null) {
+            return;
+        }
+        FunctionCounter.builder("cache.payload.serialized.bytes", serializer, CacheValueSerializer::getSerializedBytes)
+                .tags(tags).baseUnit(BaseUnits.BYTES)
+                .description("Bytes escritos en Redis (tras la compresión)")
+                .register(registry);
+        FunctionCounter.builder("cache.payload.uncompressed.bytes", serializer, CacheValueSerializer::getUncompressedBytes)
+                .tags(tags).baseUnit(BaseUnits.BYTES)
+                .description("Bytes de los valores antes de comprimir")
+                .register(registry);
+        FunctionCounter.builder("cache.payload.rejected", serializer, CacheValueSerializer::getRejectedPayloads)
+                .tags(tags)
+                .description("Valores de Redis descartados por formato no soportado")
+                .register(registry);
+        FunctionTimer.builder("cache.payload.encode", serializer,
+                        CacheValueSerializer::getSerializations, CacheValueSerializer::getEncodeNanos, TimeUnit.NANOSECONDS)
+                .tags(tags)
+                .description("Serializaciones de valores para Redis")
+                .register(registry);
+        FunctionTimer.builder("cache.payload.decode", serializer,
+                        CacheValueSerializer::getDeserializations, CacheValueSerializer::getDecodeNanos, TimeUnit.NANOSECONDS)
+                .tags(tags)
+                .description("Deserializaciones de valores leídos de Redis")
+                .register(registry);
+    }
+}
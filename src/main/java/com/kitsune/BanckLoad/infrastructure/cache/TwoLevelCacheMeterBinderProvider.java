@@ -0,0 +1,24 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.cache.metrics.CacheMeterBinderProvider;
+
+import java.util.Map;
+
+/**
+ * Permite que Actuator registre las métricas de cada región de TwoLevelCacheManager al arrancar
+ */
+public class TwoLevelCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoLevelCache> {
+
+    private final Map<String, CacheValueSerializer> serializers;
+
+    public TwoLevelCacheMeterBinderProvider(Map<String, CacheValueSerializer> serializers) {
+        this.serializers = serializers;
+    }
+
+    @Override
+    public MeterBinder getMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+        return new TwoLevelCacheMeterBinder(cache, serializers.get(cache.getName()), tags);
+    }
+}
@@ -0,0 +1,33 @@
+package com.kitsune.BanckLoad.infrastructure.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Ejecución asíncrona. Spring Boot aplica el TaskDecorator al ejecutor de @Async, al de las respuestas
+ * asíncronas de MVC y al planificador, tanto con hilos de plataforma como con hilos virtuales
+ * (spring.threads.virtual.enabled).
+ * <p>
+ * El SecurityContextHolder es por hilo: sin el decorador, una tarea lanzada desde una petición
+ * autenticada no vería al usuario. Los servicios reciben el usuario como parámetro (AuthenticatedUser)
+ * y no dependen del contexto; lo necesita la seguridad de métodos (@PreAuthorize) de los beans que se
+ * invoquen desde la tarea.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Bean
+    public TaskDecorator securityContextTaskDecorator() {
+        return runnable -> {
+            // Se captura en el hilo que envía la tarea y se restaura al terminar en el que la ejecuta
+            SecurityContext context = SecurityContextHolder.getContext();
+            return new DelegatingSecurityContextRunnable(runnable, context);
+        };
+    }
+}
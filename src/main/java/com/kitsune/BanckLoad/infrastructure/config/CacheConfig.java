@@ -1,50 +1,107 @@
 package com.kitsune.BanckLoad.infrastructure.config;
 
-import org.springframework.cache.CacheManager;
+import com.kitsune.BanckLoad.infrastructure.cache.CacheInvalidationListener;
+import com.kitsune.BanckLoad.infrastructure.cache.CacheInvalidationPublisher;
+import com.kitsune.BanckLoad.infrastructure.cache.CacheValueSerializer;
+import com.kitsune.BanckLoad.infrastructure.cache.LocalCacheSpec;
+import com.kitsune.BanckLoad.infrastructure.cache.TwoLevelCacheManager;
+import com.kitsune.BanckLoad.infrastructure.cache.TwoLevelCacheMeterBinderProvider;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    // Serializador de cada región, para publicar sus tamaños y tiempos como métricas
+    private final Map<String, CacheValueSerializer> valueSerializers = new ConcurrentHashMap<>();
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate redisTemplate) {
+        return new CacheInvalidationPublisher(redisTemplate);
+    }
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // Configuración por defecto: 10 minutos
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             CacheInvalidationPublisher invalidationPublisher) {
+        // Configuración por defecto: 10 minutos. Valores en formato binario compacto (ver CacheValueSerializer)
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new CacheValueSerializer("default")))
                 .disableCachingNullValues();
 
         // Configuraciones específicas por caché
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
 
-        // Caché de préstamos: 5 minutos (datos que cambian frecuentemente)
-        cacheConfigurations.put("loans", defaultConfig.entryTtl(Duration.ofMinutes(5)));
+        // Cachés de préstamos: 5 minutos (datos que cambian frecuentemente).
+        // Regiones separadas por tipo de clave para que un username como "all" no colisione con las vistas admin
+        cacheConfigurations.put("loans", regionConfig(defaultConfig, "loans", Duration.ofMinutes(5)));
+        cacheConfigurations.put("userLoans", regionConfig(defaultConfig, "userLoans", Duration.ofMinutes(5)));
+        cacheConfigurations.put("adminLoans", regionConfig(defaultConfig, "adminLoans", Duration.ofMinutes(5)));
 
         // Caché de usuarios: 30 minutos (datos más estables)
-        cacheConfigurations.put("users", defaultConfig.entryTtl(Duration.ofMinutes(30)));
-
-        // Caché de estadísticas: 2 minutos (se actualizan con frecuencia)
-        cacheConfigurations.put("statistics", defaultConfig.entryTtl(Duration.ofMinutes(2)));
+        cacheConfigurations.put("users", regionConfig(defaultConfig, "users", Duration.ofMinutes(30)));
 
         // Caché de sesiones de usuario: 1 hora
-        cacheConfigurations.put("userSessions", defaultConfig.entryTtl(Duration.ofHours(1)));
+        cacheConfigurations.put("userSessions", regionConfig(defaultConfig, "userSessions", Duration.ofHours(1)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // L2 compartida; las transacciones las gestiona el CacheManager de dos niveles
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
-                .transactionAware()
                 .build();
+
+        // L1 en memoria por región: TTL corto porque otro nodo puede repoblarla justo tras una invalidación
+        Map<String, LocalCacheSpec> localSpecs = new HashMap<>();
+        localSpecs.put("loans", LocalCacheSpec.of(10_000, Duration.ofSeconds(60)));
+        localSpecs.put("userLoans", LocalCacheSpec.of(10_000, Duration.ofSeconds(30)));
+        localSpecs.put("adminLoans", LocalCacheSpec.of(16, Duration.ofSeconds(15)));
+        localSpecs.put("users", LocalCacheSpec.of(10_000, Duration.ofMinutes(2)));
+        localSpecs.put("userSessions", LocalCacheSpec.of(10_000, Duration.ofMinutes(5)));
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager, localSpecs,
+                LocalCacheSpec.of(1_000, Duration.ofSeconds(30)), invalidationPublisher);
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
+
+    // Un serializador por región para medir tamaños y tiempos de (de)serialización por región
+    private RedisCacheConfiguration regionConfig(RedisCacheConfiguration defaults, String region, Duration ttl) {
+        CacheValueSerializer serializer = new CacheValueSerializer(region);
+        valueSerializers.put(region, serializer);
+        return defaults.entryTtl(ttl)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+    }
+
+    @Bean
+    public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+        return new TwoLevelCacheMeterBinderProvider(valueSerializers);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager,
+                                                                            CacheInvalidationPublisher invalidationPublisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(new CacheInvalidationListener(cacheManager, invalidationPublisher),
+                new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+        return container;
     }
 }
@@ -0,0 +1,63 @@
+package com.kitsune.BanckLoad.infrastructure.config;
+
+import com.kitsune.BanckLoad.infrastructure.datasource.PoolRoutingDataSource;
+import com.kitsune.BanckLoad.infrastructure.datasource.ReportingPool;
+import com.kitsune.BanckLoad.infrastructure.datasource.ReportingPoolInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Dos pools Hikari con la misma base de datos y tamaños independientes (datasource.pools.customer y
+ * datasource.pools.reporting): una exportación o un listado de administración con la caché fría no
+ * puede dejar sin conexiones a las solicitudes de los clientes, ni al revés.
+ * <p>
+ * Cada pool es un bean propio, así que Actuator publica sus métricas etiquetadas con pool=nombre
+ * (hikaricp.connections.active, idle, pending y el histograma hikaricp.connections.acquire).
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("datasource.pools.customer")
+    public HikariDataSource customerDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.pools.reporting")
+    public HikariDataSource reportingDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("customerDataSource") DataSource customer,
+                                 @Qualifier("reportingDataSource") DataSource reporting) {
+        return new PoolRoutingDataSource(customer, reporting);
+    }
+
+    // Antes que el interceptor de @Transactional: la transacción debe abrir la conexión en el pool elegido
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor reportingPoolAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(ReportingPool.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(ReportingPool.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ReportingPoolInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
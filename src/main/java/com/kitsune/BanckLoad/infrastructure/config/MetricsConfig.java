@@ -0,0 +1,35 @@
+package com.kitsune.BanckLoad.infrastructure.config;
+
+import com.kitsune.BanckLoad.infrastructure.metrics.TimedServiceInterceptor;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+/**
+ * Timers de servicio: las clases y métodos con @Timed (LoanService, StatisticsService, AuthService)
+ * publican bankload.service con histograma de percentiles. El resto de métricas (pools, cachés,
+ * endpoints, repositorios, filtro JWT) las registra Actuator o su propio componente.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Justo después de la selección de pool y antes que caché y transacción
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor timedServiceAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Timed.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Timed.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new TimedServiceInterceptor(meterRegistry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+}
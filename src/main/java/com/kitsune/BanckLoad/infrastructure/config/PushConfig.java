@@ -0,0 +1,22 @@
+package com.kitsune.BanckLoad.infrastructure.config;
+
+import com.kitsune.BanckLoad.infrastructure.push.LoanEventBroadcaster;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class PushConfig {
+
+    // Eventos de préstamos publicados por otros nodos para los suscriptores SSE de este
+    @Bean
+    public RedisMessageListenerContainer loanEventsListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     LoanEventBroadcaster broadcaster) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(broadcaster, new ChannelTopic(LoanEventBroadcaster.CHANNEL));
+        return container;
+    }
+}
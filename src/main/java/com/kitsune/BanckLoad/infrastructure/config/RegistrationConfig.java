@@ -0,0 +1,24 @@
+package com.kitsune.BanckLoad.infrastructure.config;
+
+import com.kitsune.BanckLoad.infrastructure.registration.UserIdentityIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RegistrationConfig {
+
+    // Altas de usuarios de otros nodos para el índice de registro de este
+    @Bean
+    @ConditionalOnProperty(name = "registration.index.shared", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer userRegistrationsListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            UserIdentityIndex identityIndex) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(identityIndex, new ChannelTopic(UserIdentityIndex.CHANNEL));
+        return container;
+    }
+}
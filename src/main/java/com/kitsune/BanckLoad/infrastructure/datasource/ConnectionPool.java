@@ -0,0 +1,10 @@
+package com.kitsune.BanckLoad.infrastructure.datasource;
+
+/**
+ * Pools de conexiones independientes: CUSTOMER para el trabajo transaccional de los clientes (por defecto)
+ * y REPORTING para las lecturas largas de administración, estadísticas y procesos en segundo plano.
+ */
+public enum ConnectionPool {
+    CUSTOMER,
+    REPORTING
+}
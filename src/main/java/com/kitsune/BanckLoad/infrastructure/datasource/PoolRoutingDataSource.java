@@ -0,0 +1,50 @@
+package com.kitsune.BanckLoad.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource principal: entrega conexiones del pool seleccionado en el hilo actual (CUSTOMER si no hay
+ * ninguno). La selección la hace ReportingPoolInterceptor alrededor de los métodos con @ReportingPool.
+ */
+public class PoolRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<ConnectionPool> CURRENT = new ThreadLocal<>();
+
+    public PoolRoutingDataSource(DataSource customer, DataSource reporting) {
+        setTargetDataSources(Map.of(ConnectionPool.CUSTOMER, customer, ConnectionPool.REPORTING, reporting));
+        setDefaultTargetDataSource(customer);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Selecciona el pool del hilo actual
+     *
+     * @return la selección anterior, para restaurarla con {@link #restore(ConnectionPool)}
+     */
+    public static ConnectionPool use(ConnectionPool pool) {
+        ConnectionPool previous = CURRENT.get();
+        CURRENT.set(pool);
+        return previous;
+    }
+
+    public static void restore(ConnectionPool previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static ConnectionPool current() {
+        ConnectionPool pool = CURRENT.get();
+        return pool != null ? pool : ConnectionPool.CUSTOMER;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return current();
+    }
+}
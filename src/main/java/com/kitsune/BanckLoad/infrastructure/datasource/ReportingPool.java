@@ -0,0 +1,18 @@
+package com.kitsune.BanckLoad.infrastructure.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ejecuta el método (o todos los de la clase) con conexiones del pool REPORTING. Se aplica antes que
+ * @Transactional, así que la transacción ya abre su conexión en ese pool. Dentro de una transacción
+ * que ya tiene conexión no cambia nada: se sigue usando la suya.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReportingPool {
+}
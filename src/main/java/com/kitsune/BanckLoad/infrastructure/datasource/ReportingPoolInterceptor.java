@@ -0,0 +1,20 @@
+package com.kitsune.BanckLoad.infrastructure.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Selecciona el pool REPORTING durante la llamada y restaura el anterior al terminar
+ */
+public class ReportingPoolInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ConnectionPool previous = PoolRoutingDataSource.use(ConnectionPool.REPORTING);
+        try {
+            return invocation.proceed();
+        } finally {
+            PoolRoutingDataSource.restore(previous);
+        }
+    }
+}
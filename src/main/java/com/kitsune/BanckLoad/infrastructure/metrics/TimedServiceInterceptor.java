@@ -0,0 +1,74 @@
+package com.kitsune.BanckLoad.infrastructure.metrics;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Mide las llamadas a métodos (o clases) con @Timed en un Timer con las etiquetas class, method y
+ * exception ("none" si termina bien), más los extraTags de la anotación.
+ * <p>
+ * Se aplica por fuera de la caché y de la transacción: los aciertos de @Cacheable también cuentan,
+ * así que el timer refleja la latencia que ve quien llama. El registro se resuelve en la primera
+ * llamada para no crearlo antes de que Actuator le aplique su configuración.
+ */
+public class TimedServiceInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private volatile MeterRegistry registry;
+
+    public TimedServiceInterceptor(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+        Method method = invocation.getMethod();
+        Timed timed = findTimed(method, targetClass);
+        MeterRegistry meterRegistry = registry();
+        if (timed == null || meterRegistry == null) {
+            return invocation.proceed();
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(timed.value())
+                    .description(timed.description().isEmpty() ? null : timed.description())
+                    .tags("class", targetClass.getSimpleName(), "method", method.getName(), "exception", exception)
+                    .tags(timed.extraTags())
+                    .publishPercentileHistogram(timed.histogram())
+                    .publishPercentiles(timed.percentiles().length > 0 ? timed.percentiles() : null)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static Timed findTimed(Method method, Class<?> targetClass) {
+        Timed timed = AnnotatedElementUtils.findMergedAnnotation(method, Timed.class);
+        return timed != null ? timed : AnnotatedElementUtils.findMergedAnnotation(targetClass, Timed.class);
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry current = registry;
+        if (current == null) {
+            current = registryProvider.getIfAvailable();
+            registry = current;
+        }
+        return current;
+    }
+}
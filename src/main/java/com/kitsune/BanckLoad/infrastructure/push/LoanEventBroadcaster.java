@@ -0,0 +1,403 @@
+package com.kitsune.BanckLoad.infrastructure.push;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.application.event.LoansImportedEvent;
+import com.kitsune.BanckLoad.application.event.LoansReviewedEvent;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.statistics.LoanStatisticsCounters;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Difunde a los dashboards conectados por SSE los préstamos creados y revisados y los cambios de estadísticas,
+ * a partir de los eventos que publican LoanService y las operaciones masivas tras su commit.
+ * <p>
+ * Cada mensaje se serializa una sola vez y se reparte a los administradores y al titular del préstamo.
+ * Cada suscriptor tiene un búfer acotado que vacía un hilo virtual propio: el productor nunca espera
+ * a un cliente lento, y el que llena su búfer se desconecta (al reconectar recarga el listado).
+ * <p>
+ * Los eventos de cada operación (un préstamo o un lote completo) se reenvían por Redis en un único
+ * {@link LoanPushRelay}, desde un ejecutor acotado y nunca desde el hilo que hizo el commit. Solo se reenvían
+ * si otro nodo anuncia suscriptores en {@link #PRESENCE_KEY}; sin suscriptores en ningún nodo no se hace nada.
+ */
+@Component
+@Slf4j
+public class LoanEventBroadcaster implements MessageListener {
+
+    public static final String CHANNEL = "loans:events";
+    // Hash nodo -> instante (epoch ms) hasta el que ese nodo tiene suscriptores SSE
+    static final String PRESENCE_KEY = "loans:events:subscribers";
+    // Por encima de este tamaño un lote llega a cada destinatario como un único LOANS_CHANGED
+    static final int DETAIL_LIMIT = 100;
+
+    private final StringRedisTemplate redisTemplate;
+    private final JsonMapper jsonMapper;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Duration presenceTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+    // Algún otro nodo tiene suscriptores: sin ellos no se publica nada en Redis
+    private volatile boolean remoteSubscribers;
+
+    private final Set<Subscriber> admins = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Subscriber>> users = new ConcurrentHashMap<>();
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-push-", 0).factory());
+    // Un único hilo conserva el orden de los reenvíos; la cola acotada protege la memoria si Redis se atasca
+    private final ThreadPoolExecutor relays;
+
+    public LoanEventBroadcaster(StringRedisTemplate redisTemplate,
+                                JsonMapper jsonMapper,
+                                @Value("${push.buffer-size:256}") int bufferSize,
+                                @Value("${push.timeout:PT30M}") Duration timeout,
+                                @Value("${push.heartbeat-interval:PT25S}") Duration heartbeatInterval,
+                                @Value("${push.relay-queue-size:1000}") int relayQueueSize) {
+        this.redisTemplate = redisTemplate;
+        this.jsonMapper = jsonMapper;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        // Tolera la pérdida de un latido antes de dar por caído a un nodo
+        this.presenceTtl = heartbeatInterval.multipliedBy(3);
+        this.relays = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(relayQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "sse-relay");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Abre un canal SSE: los administradores reciben todos los préstamos, el resto solo los suyos
+     */
+    public SseEmitter subscribe(String username, boolean admin) {
+        return subscribe(username, admin, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(String username, boolean admin, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(username, admin, emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        if (admin) {
+            admins.add(subscriber);
+        } else {
+            users.computeIfAbsent(username, u -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        log.debug("Suscriptor SSE conectado: {} (admin={})", username, admin);
+        if (subscriberCount() == 1) {
+            // Primer suscriptor del nodo: los demás empiezan a reenviar sin esperar al siguiente latido
+            relay(this::announcePresence);
+        }
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return admins.size() + users.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanCreated(LoanCreatedEvent event) {
+        if (idle()) {
+            return;
+        }
+        LoanResponseDTO loan = event.getLoan();
+        List<LoanPushMessage> messages = new ArrayList<>(2);
+        add(messages, LoanPushMessage.Type.LOAN_CREATED, LoanPushMessage.Audience.ALL, loan.getUsername(), loan);
+        add(messages, LoanPushMessage.Type.STATS_DELTA, LoanPushMessage.Audience.ALL, loan.getUsername(),
+                Map.of(LoanStatus.PENDING.name(), 1, LoanStatisticsCounters.TOTAL_FIELD, 1));
+        publish(messages);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanReviewed(LoanReviewedEvent event) {
+        if (idle()) {
+            return;
+        }
+        LoanResponseDTO loan = event.getLoan();
+        List<LoanPushMessage> messages = new ArrayList<>(2);
+        add(messages, LoanPushMessage.Type.LOAN_REVIEWED, LoanPushMessage.Audience.ALL, loan.getUsername(), loan);
+        add(messages, LoanPushMessage.Type.STATS_DELTA, LoanPushMessage.Audience.ALL, loan.getUsername(),
+                Map.of(event.getPreviousStatus().name(), -1, loan.getStatus(), 1));
+        publish(messages);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoansImported(LoansImportedEvent event) {
+        publishBatch(LoanPushMessage.Type.LOAN_CREATED, event.getLoans());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoansReviewed(LoansReviewedEvent event) {
+        publishBatch(LoanPushMessage.Type.LOAN_REVIEWED, event.getLoans());
+    }
+
+    // Mantiene abiertas las conexiones inactivas a través de proxies y balanceadores y renueva la presencia del nodo
+    @Scheduled(fixedDelayString = "${push.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        admins.forEach(Subscriber::heartbeat);
+        users.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+        relay(this::refreshPresence);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        LoanPushRelay relay;
+        try {
+            relay = jsonMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), LoanPushRelay.class);
+        } catch (JacksonException e) {
+            log.warn("Mensaje de eventos de préstamos no válido: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(relay.getOrigin())) {
+            return;
+        }
+        if (relay.isPresence()) {
+            remoteSubscribers = true;
+        }
+        if (relay.getMessages() != null) {
+            relay.getMessages().forEach(this::deliver);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        admins.forEach(subscriber -> subscriber.emitter.complete());
+        users.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+        // Deja salir los reenvíos ya encolados sin retrasar indefinidamente el apagado
+        relays.shutdown();
+        try {
+            relays.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publishBatch(LoanPushMessage.Type type, List<LoanResponseDTO> loans) {
+        if (idle()) {
+            return;
+        }
+        boolean detail = loans.size() <= DETAIL_LIMIT;
+        List<LoanPushMessage> messages = new ArrayList<>();
+        Map<String, Integer> countsByUser = new LinkedHashMap<>();
+        Map<String, Map<String, Integer>> deltasByUser = new HashMap<>();
+        Map<String, Integer> globalDeltas = new HashMap<>();
+        for (LoanResponseDTO loan : loans) {
+            if (detail) {
+                add(messages, type, LoanPushMessage.Audience.ALL, loan.getUsername(), loan);
+            }
+            countsByUser.merge(loan.getUsername(), 1, Integer::sum);
+            Map<String, Integer> deltas = deltasByUser.computeIfAbsent(loan.getUsername(), u -> new HashMap<>());
+            if (type == LoanPushMessage.Type.LOAN_CREATED) {
+                deltas.merge(LoanStatisticsCounters.TOTAL_FIELD, 1, Integer::sum);
+                globalDeltas.merge(LoanStatisticsCounters.TOTAL_FIELD, 1, Integer::sum);
+            } else {
+                deltas.merge(LoanStatus.PENDING.name(), -1, Integer::sum);
+                globalDeltas.merge(LoanStatus.PENDING.name(), -1, Integer::sum);
+            }
+            String status = type == LoanPushMessage.Type.LOAN_CREATED ? LoanStatus.PENDING.name() : loan.getStatus();
+            deltas.merge(status, 1, Integer::sum);
+            globalDeltas.merge(status, 1, Integer::sum);
+        }
+        if (!detail) {
+            add(messages, LoanPushMessage.Type.LOANS_CHANGED, LoanPushMessage.Audience.ADMINS, null,
+                    Map.of("event", type.name(), "count", loans.size()));
+            countsByUser.forEach((username, count) -> add(messages, LoanPushMessage.Type.LOANS_CHANGED,
+                    LoanPushMessage.Audience.OWNER, username, Map.of("event", type.name(), "count", count)));
+        }
+        // Un delta por titular y uno global para los administradores, no uno por préstamo
+        countsByUser.keySet().forEach(username -> add(messages, LoanPushMessage.Type.STATS_DELTA,
+                LoanPushMessage.Audience.OWNER, username, deltasByUser.get(username)));
+        add(messages, LoanPushMessage.Type.STATS_DELTA, LoanPushMessage.Audience.ADMINS, null, globalDeltas);
+        publish(messages);
+    }
+
+    private void add(List<LoanPushMessage> messages, LoanPushMessage.Type type, LoanPushMessage.Audience audience,
+                     String username, Object payload) {
+        try {
+            messages.add(new LoanPushMessage(type, audience, username, jsonMapper.writeValueAsString(payload)));
+        } catch (JacksonException e) {
+            log.warn("No se pudo serializar el evento {}: {}", type, e.getMessage());
+        }
+    }
+
+    private void publish(List<LoanPushMessage> messages) {
+        messages.forEach(this::deliver);
+        if (remoteSubscribers && !messages.isEmpty()) {
+            relay(() -> redisTemplate.convertAndSend(CHANNEL,
+                    jsonMapper.writeValueAsString(new LoanPushRelay(nodeId, false, messages))));
+        }
+    }
+
+    private boolean idle() {
+        return !remoteSubscribers && admins.isEmpty() && users.isEmpty();
+    }
+
+    private void relay(Runnable task) {
+        try {
+            relays.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // Los suscriptores de este nodo ya lo recibieron; los de otros recargan al reconectar
+                    log.warn("No se pudo reenviar eventos a otros nodos: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de reenvío a otros nodos llena: se descartan eventos para sus suscriptores");
+        }
+    }
+
+    private void announcePresence() {
+        redisTemplate.opsForHash().put(PRESENCE_KEY, nodeId,
+                String.valueOf(System.currentTimeMillis() + presenceTtl.toMillis()));
+        redisTemplate.convertAndSend(CHANNEL, jsonMapper.writeValueAsString(new LoanPushRelay(nodeId, true, List.of())));
+    }
+
+    private void refreshPresence() {
+        HashOperations<String, String, String> presence = redisTemplate.opsForHash();
+        long now = System.currentTimeMillis();
+        if (admins.isEmpty() && users.isEmpty()) {
+            presence.delete(PRESENCE_KEY, nodeId);
+        } else {
+            presence.put(PRESENCE_KEY, nodeId, String.valueOf(now + presenceTtl.toMillis()));
+        }
+        boolean others = false;
+        List<Object> expired = new ArrayList<>();
+        for (Map.Entry<String, String> node : presence.entries(PRESENCE_KEY).entrySet()) {
+            if (Long.parseLong(node.getValue()) <= now) {
+                // Nodo caído sin llegar a borrar su entrada
+                expired.add(node.getKey());
+            } else if (!nodeId.equals(node.getKey())) {
+                others = true;
+            }
+        }
+        remoteSubscribers = others;
+        if (!expired.isEmpty()) {
+            presence.delete(PRESENCE_KEY, expired.toArray());
+        }
+    }
+
+    void deliver(LoanPushMessage push) {
+        if (push.getAudience() != LoanPushMessage.Audience.OWNER) {
+            admins.forEach(subscriber -> subscriber.offer(push));
+        }
+        if (push.getAudience() != LoanPushMessage.Audience.ADMINS && push.getUsername() != null) {
+            Set<Subscriber> owners = users.get(push.getUsername());
+            if (owners != null) {
+                owners.forEach(subscriber -> subscriber.offer(push));
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.admin) {
+            admins.remove(subscriber);
+        } else {
+            users.computeIfPresent(subscriber.username, (u, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    private final class Subscriber {
+        private final String username;
+        private final boolean admin;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(String username, boolean admin, SseEmitter emitter, BlockingQueue<Object> buffer) {
+            this.username = username;
+            this.admin = admin;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        void offer(LoanPushMessage push) {
+            enqueue(push);
+        }
+
+        void heartbeat() {
+            enqueue(Heartbeat.INSTANCE);
+        }
+
+        private void enqueue(Object item) {
+            if (!buffer.offer(item)) {
+                log.warn("Suscriptor SSE lento desconectado: {} ({} eventos sin enviar)", username, buffer.size());
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Object item;
+                while ((item = buffer.poll()) != null) {
+                    if (item instanceof LoanPushMessage push) {
+                        emitter.send(SseEmitter.event()
+                                .name(push.getType().name())
+                                .data(push.getPayload(), MediaType.APPLICATION_JSON));
+                    } else {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Suscriptor SSE desconectado: {} ({})", username, e.getMessage());
+                remove(this);
+                buffer.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Un evento encolado justo después de vaciar el búfer no debe quedarse sin enviar
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+
+    private enum Heartbeat {
+        INSTANCE
+    }
+}
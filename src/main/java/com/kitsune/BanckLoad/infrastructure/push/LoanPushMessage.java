@@ -0,0 +1,36 @@
+package com.kitsune.BanckLoad.infrastructure.push;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento para los dashboards conectados, ya serializado: el payload JSON se genera una vez y se envía tal cual
+ * a todos los suscriptores. Viaja también por Redis, agrupado en un {@link LoanPushRelay}, para llegar a los
+ * suscriptores de otros nodos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanPushMessage {
+
+    public enum Type {
+        LOAN_CREATED,
+        LOAN_REVIEWED,
+        STATS_DELTA,
+        // Lote demasiado grande para enviarlo préstamo a préstamo: los dashboards recargan el listado
+        LOANS_CHANGED
+    }
+
+    public enum Audience {
+        // Administradores y el titular del préstamo
+        ALL,
+        ADMINS,
+        OWNER
+    }
+
+    private Type type;
+    private Audience audience;
+    private String username;
+    private String payload;
+}
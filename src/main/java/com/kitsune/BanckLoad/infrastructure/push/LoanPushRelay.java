@@ -0,0 +1,21 @@
+package com.kitsune.BanckLoad.infrastructure.push;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Mensaje que viaja por Redis entre nodos: todos los eventos de una operación (un préstamo o un lote completo)
+ * en una sola publicación. Con presence a true anuncia que el nodo de origen tiene suscriptores SSE.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanPushRelay {
+
+    private String origin;
+    private boolean presence;
+    private List<LoanPushMessage> messages;
+}
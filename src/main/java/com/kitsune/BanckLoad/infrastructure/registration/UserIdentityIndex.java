@@ -0,0 +1,145 @@
+package com.kitsune.BanckLoad.infrastructure.registration;
+
+import com.kitsune.BanckLoad.infrastructure.repository.UserIdentity;
+import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Índice probabilístico de usernames y emails registrados para el alta de usuarios: si el filtro dice
+ * que un valor no existe, el registro se ahorra la consulta a la base de datos; solo los "puede existir"
+ * la consultan. Las restricciones únicas de la tabla siguen decidiendo en caso de carrera.
+ * <p>
+ * Se carga al arrancar recorriendo en streaming una consulta de las dos columnas, sin materializar la tabla.
+ * Hasta entonces responde siempre "puede existir".
+ * Cada alta se añade aquí y se reenvía por Redis al resto de nodos; un mensaje perdido solo provoca
+ * que otro nodo llegue al INSERT y lo rechace la restricción única.
+ */
+@Component
+@Slf4j
+public class UserIdentityIndex implements MessageListener {
+
+    public static final String CHANNEL = "users:registered";
+
+    record Registration(String origin, String username, String email) {
+    }
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final JsonMapper jsonMapper;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private final boolean shared;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile boolean ready;
+
+    public UserIdentityIndex(UserRepository userRepository,
+                             StringRedisTemplate redisTemplate,
+                             JsonMapper jsonMapper,
+                             @Value("${registration.index.expected-users:1000000}") long expectedUsers,
+                             @Value("${registration.index.false-positive-rate:0.01}") double falsePositiveRate,
+                             @Value("${registration.index.shared:true}") boolean shared) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.jsonMapper = jsonMapper;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.shared = shared;
+    }
+
+    /**
+     * Carga inicial tras los CommandLineRunner (DataInitializer). Las altas concurrentes ya se añaden
+     * a los filtros, así que no se pierde ninguna entre la consulta y la activación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<UserIdentity> identities = userRepository.streamAllIdentities()) {
+            long loaded = 0;
+            for (Iterator<UserIdentity> iterator = identities.iterator(); iterator.hasNext(); loaded++) {
+                UserIdentity identity = iterator.next();
+                usernames.put(identity.getUsername());
+                emails.put(identity.getEmail());
+            }
+            ready = true;
+            log.info("Índice de registro cargado: {} usuarios, {} bits y {} hashes por filtro",
+                    loaded, usernames.bitSize(), usernames.hashCount());
+        } catch (RuntimeException e) {
+            // Sin índice cada alta consulta la base de datos, como antes
+            log.warn("No se pudo cargar el índice de registro: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * false solo si el username seguro que no está registrado
+     */
+    public boolean mightContainUsername(String username) {
+        return !ready || usernames.mightContain(username);
+    }
+
+    /**
+     * false solo si el email seguro que no está registrado
+     */
+    public boolean mightContainEmail(String email) {
+        return !ready || emails.mightContain(email);
+    }
+
+    /**
+     * Añade un alta al índice local y la reenvía al resto de nodos
+     */
+    public void record(String username, String email) {
+        add(username, email);
+        if (!shared) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL,
+                    jsonMapper.writeValueAsString(new Registration(nodeId, username, email)));
+        } catch (RuntimeException e) {
+            // Otros nodos consultarán la base de datos o chocarán con la restricción única
+            log.warn("No se pudo reenviar el alta de {} a otros nodos: {}", username, e.getMessage());
+        }
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Registration registration;
+        try {
+            registration = jsonMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8),
+                    Registration.class);
+        } catch (JacksonException e) {
+            log.warn("Mensaje de alta de usuario no válido: {}", e.getMessage());
+            return;
+        }
+        if (!nodeId.equals(registration.origin())) {
+            add(registration.username(), registration.email());
+        }
+    }
+
+    private void add(String username, String email) {
+        if (username != null) {
+            usernames.put(username);
+        }
+        if (email != null) {
+            emails.put(email);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.kitsune.BanckLoad.infrastructure.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Proyección de solicitudes agregadas por día de requestDate
+ */
+public interface DailyRequestRollup {
+    LocalDate getDay();
+    long getRequested();
+    BigDecimal getAmount();
+    long getTermSum();
+}
@@ -0,0 +1,14 @@
+package com.kitsune.BanckLoad.infrastructure.repository;
+
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección de revisiones agregadas por día de reviewedAt y estado resultante
+ */
+public interface DailyStatusCount {
+    LocalDate getDay();
+    LoanStatus getStatus();
+    long getTotal();
+}
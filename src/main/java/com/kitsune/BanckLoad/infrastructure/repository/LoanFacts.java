@@ -0,0 +1,20 @@
+package com.kitsune.BanckLoad.infrastructure.repository;
+
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección con las columnas numéricas de un préstamo, sin joins (user_id sale de la propia fila)
+ */
+public interface LoanFacts {
+    Long getId();
+    BigDecimal getAmount();
+    Integer getTerm();
+    LoanStatus getStatus();
+    Long getUserId();
+    LocalDateTime getRequestDate();
+    LocalDateTime getReviewedAt();
+    LocalDateTime getUpdatedAt();
+}
@@ -1,22 +1,149 @@
 package com.kitsune.BanckLoad.infrastructure.repository;
 
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
 import com.kitsune.BanckLoad.domain.model.Loan;
 import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
 import com.kitsune.BanckLoad.domain.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    // Proyección directa a LoanResponseDTO: una sola consulta con los joins de usuario y revisor,
+    // sin entidades gestionadas (ni cargas LAZY ni dirty-checking ni roles EAGER)
+    String LOAN_ROW = "SELECT new com.kitsune.BanckLoad.application.dto.LoanResponseDTO(" +
+            "l.id, l.amount, l.term, l.purpose, l.status, l.rejectionReason, l.requestDate, l.reviewedAt, " +
+            "r.username, u.id, u.username) " +
+            "FROM Loan l JOIN l.user u LEFT JOIN l.reviewedBy r ";
+
+    String KEYSET_AFTER = "(l.requestDate < :requestDate OR (l.requestDate = :requestDate AND l.id < :id)) ";
+
+    String KEYSET_ORDER = "ORDER BY l.requestDate DESC, l.id DESC";
+
     List<Loan> findByUser(User user);
     List<Loan> findByUserId(Long userId);
     List<Loan> findByStatus(LoanStatus status);
     List<Loan> findByUserIdAndStatus(Long userId, LoanStatus status);
 
-    // Métodos de conteo para estadísticas con caché
+    @Query(LOAN_ROW + "WHERE l.id = :id")
+    Optional<LoanResponseDTO> findRowById(@Param("id") Long id);
+
+    // Paginación por keyset (requestDate, id) descendente: la primera página no lleva cursor,
+    // las siguientes continúan estrictamente después de la última fila entregada
+    @Query(LOAN_ROW + KEYSET_ORDER)
+    List<LoanResponseDTO> findFirstPage(Limit limit);
+
+    @Query(LOAN_ROW + "WHERE " + KEYSET_AFTER + KEYSET_ORDER)
+    List<LoanResponseDTO> findPageAfter(@Param("requestDate") LocalDateTime requestDate,
+                                        @Param("id") Long id,
+                                        Limit limit);
+
+    @Query(LOAN_ROW + "WHERE l.status = :status " + KEYSET_ORDER)
+    List<LoanResponseDTO> findFirstPageByStatus(@Param("status") LoanStatus status, Limit limit);
+
+    @Query(LOAN_ROW + "WHERE l.status = :status AND " + KEYSET_AFTER + KEYSET_ORDER)
+    List<LoanResponseDTO> findPageByStatusAfter(@Param("status") LoanStatus status,
+                                                @Param("requestDate") LocalDateTime requestDate,
+                                                @Param("id") Long id,
+                                                Limit limit);
+
+    @Query(LOAN_ROW + "WHERE u.username = :username " + KEYSET_ORDER)
+    List<LoanResponseDTO> findFirstPageByUsername(@Param("username") String username, Limit limit);
+
+    @Query(LOAN_ROW + "WHERE u.username = :username AND " + KEYSET_AFTER + KEYSET_ORDER)
+    List<LoanResponseDTO> findPageByUsernameAfter(@Param("username") String username,
+                                                  @Param("requestDate") LocalDateTime requestDate,
+                                                  @Param("id") Long id,
+                                                  Limit limit);
+
+    // Recorrido por keyset en orden de id para los flujos reactivos: cada página es una consulta corta
+    @Query(LOAN_ROW + "WHERE l.status IN :statuses AND l.id > :afterId ORDER BY l.id")
+    List<LoanResponseDTO> findRowsByStatusAfterId(@Param("statuses") Collection<LoanStatus> statuses,
+                                                  @Param("afterId") Long afterId,
+                                                  Limit limit);
+
+    @Query(LOAN_ROW + "WHERE u.username = :username AND l.status IN :statuses AND l.id > :afterId ORDER BY l.id")
+    List<LoanResponseDTO> findRowsByUsernameAndStatusAfterId(@Param("username") String username,
+                                                             @Param("statuses") Collection<LoanStatus> statuses,
+                                                             @Param("afterId") Long afterId,
+                                                             Limit limit);
+
+    @Query(LOAN_ROW + "WHERE l.id IN :ids")
+    List<LoanResponseDTO> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Transición condicional en bloque: solo cambian los préstamos que siguen pendientes
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.status = :status, l.rejectionReason = :rejectionReason, " +
+           "l.reviewedAt = :reviewedAt, l.reviewedBy = :reviewer, l.updatedAt = :reviewedAt " +
+           "WHERE l.id IN :ids AND l.status = :pending")
+    int reviewPending(@Param("ids") Collection<Long> ids,
+                      @Param("status") LoanStatus status,
+                      @Param("rejectionReason") String rejectionReason,
+                      @Param("reviewedAt") LocalDateTime reviewedAt,
+                      @Param("reviewer") User reviewer,
+                      @Param("pending") LoanStatus pending);
+
+    // Métodos de conteo para estadísticas
     long countByStatus(LoanStatus status);
     long countByUser_Username(String username);
     long countByUser_UsernameAndStatus(String username, LoanStatus status);
+
+    // Recuento completo por estado en una sola consulta (semilla y reconciliación de contadores)
+    @Query("SELECT l.status AS status, COUNT(l) AS total FROM Loan l GROUP BY l.status")
+    List<StatusCount> countGroupByStatus();
+
+    @Query("SELECT l.status AS status, COUNT(l) AS total FROM Loan l " +
+           "WHERE l.user.username = :username GROUP BY l.status")
+    List<StatusCount> countGroupByStatusForUser(@Param("username") String username);
+
+    // Agregados diarios para reconstruir los rollups de estadísticas (una fila por día)
+    @Query("SELECT CAST(l.requestDate AS LocalDate) AS day, COUNT(l) AS requested, " +
+           "SUM(l.amount) AS amount, SUM(l.term) AS termSum FROM Loan l " +
+           "GROUP BY CAST(l.requestDate AS LocalDate)")
+    List<DailyRequestRollup> sumRequestsByDay();
+
+    @Query("SELECT CAST(l.reviewedAt AS LocalDate) AS day, l.status AS status, COUNT(l) AS total FROM Loan l " +
+           "WHERE l.reviewedAt IS NOT NULL GROUP BY CAST(l.reviewedAt AS LocalDate), l.status")
+    List<DailyStatusCount> countReviewsByDay();
+
+    // Exportación en streaming: cursor de solo avance con fetch size acotado; las filas son DTOs, así que
+    // el contexto de persistencia no acumula entidades. Debe consumirse dentro de una transacción
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(LOAN_ROW + "WHERE l.status IN :statuses AND l.requestDate >= :from AND l.requestDate < :to " +
+           "ORDER BY l.id")
+    Stream<LoanResponseDTO> streamForExport(@Param("statuses") Collection<LoanStatus> statuses,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // Carga y sincronización del almacén columnar de analítica, por keyset
+    String LOAN_FACTS = "SELECT l.id AS id, l.amount AS amount, l.term AS term, l.status AS status, " +
+            "l.user.id AS userId, l.requestDate AS requestDate, l.reviewedAt AS reviewedAt, " +
+            "l.updatedAt AS updatedAt FROM Loan l ";
+
+    @Query(LOAN_FACTS + "WHERE l.id > :afterId ORDER BY l.id")
+    List<LoanFacts> findFactsAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(LOAN_FACTS + "WHERE l.updatedAt > :updatedAt OR (l.updatedAt = :updatedAt AND l.id > :id) " +
+           "ORDER BY l.updatedAt, l.id")
+    List<LoanFacts> findFactsUpdatedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+                                          @Param("id") Long id,
+                                          Limit limit);
 }
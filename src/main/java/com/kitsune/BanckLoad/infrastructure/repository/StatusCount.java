@@ -0,0 +1,11 @@
+package com.kitsune.BanckLoad.infrastructure.repository;
+
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+
+/**
+ * Proyección de conteos agrupados por estado
+ */
+public interface StatusCount {
+    LoanStatus getStatus();
+    long getTotal();
+}
@@ -0,0 +1,9 @@
+package com.kitsune.BanckLoad.infrastructure.repository;
+
+/**
+ * Proyección con los identificadores únicos de un usuario
+ */
+public interface UserIdentity {
+    String getUsername();
+    String getEmail();
+}
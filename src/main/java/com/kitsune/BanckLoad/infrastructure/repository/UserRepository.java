@@ -1,10 +1,21 @@
 package com.kitsune.BanckLoad.infrastructure.repository;
 
 import com.kitsune.BanckLoad.domain.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -12,5 +23,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // Resolución de usuarios de un lote con sus roles en una sola consulta
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u.username IN :usernames")
+    List<User> findAllWithRolesByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    // Carga del índice de registro: solo las dos columnas únicas, sin entidades ni roles. Se recorre por
+    // tramos del cursor en lugar de cargar toda la tabla en una lista. Debe consumirse dentro de una transacción
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserIdentity> streamAllIdentities();
+
+    // Rehash tras un login: solo si el hash no ha cambiado entretanto
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash, u.updatedAt = :updatedAt " +
+           "WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id,
+                           @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash,
+                           @Param("updatedAt") LocalDateTime updatedAt);
 }
 
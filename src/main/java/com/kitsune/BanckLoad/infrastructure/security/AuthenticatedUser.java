@@ -0,0 +1,55 @@
+package com.kitsune.BanckLoad.infrastructure.security;
+
+import com.kitsune.BanckLoad.domain.model.User;
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Usuario autenticado de una petición: id, username, roles y estado. Sale de la caché de principales de
+ * CustomUserDetailsService, de modo que controladores y servicios no necesitan volver a consultar la
+ * tabla users.
+ */
+@Value
+public class AuthenticatedUser implements UserDetails {
+
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    Long id;
+    String username;
+    Set<String> roles;
+    boolean enabled;
+
+    public AuthenticatedUser(Long id, String username, Set<String> roles, boolean enabled) {
+        this.id = id;
+        this.username = username;
+        this.roles = roles != null ? Set.copyOf(roles) : Set.of();
+        this.enabled = enabled;
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRoles(),
+                !Boolean.FALSE.equals(user.getEnabled()));
+    }
+
+    public boolean isAdmin() {
+        return roles.contains(ADMIN_ROLE);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return roles.stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
+
+    // Las credenciales solo intervienen en el login, nunca viajan con el principal
+    @Override
+    public String getPassword() {
+        return null;
+    }
+}
@@ -1,8 +1,10 @@
 package com.kitsune.BanckLoad.infrastructure.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.kitsune.BanckLoad.domain.model.User;
 import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,14 +12,26 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    // Principal de cada petición con token: una consulta por usuario y ventana de TTL, no por petición.
+    // El TTL acota cuánto tarda en aplicarse una desactivación o un cambio de roles
+    private final Cache<String, AuthenticatedUser> principals;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${security.principal-cache.ttl:PT1M}") Duration principalTtl) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(principalTtl)
+                .build();
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -36,6 +50,15 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Principal de un usuario por su username exacto (el subject de los tokens)
+     */
+    public AuthenticatedUser loadPrincipal(String username) throws UsernameNotFoundException {
+        return principals.get(username, key -> userRepository.findByUsername(key)
+                .map(AuthenticatedUser::from)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + key)));
+    }
+
     private Collection<? extends GrantedAuthority> getAuthorities(User user) {
         return user.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
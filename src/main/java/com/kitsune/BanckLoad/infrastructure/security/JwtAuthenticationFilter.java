@@ -1,30 +1,66 @@
 package com.kitsune.BanckLoad.infrastructure.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Autentica las peticiones con token Bearer. El tiempo propio del filtro (sin el resto de la cadena) se
+ * publica en el timer security.jwt.filter, etiquetado por resultado: skipped, anonymous, authenticated
+ * o rejected.
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    public static final String TIMER_NAME = "security.jwt.filter";
+
+    enum Outcome {
+        SKIPPED, ANONYMOUS, AUTHENTICATED, REJECTED
+    }
+
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+
+    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService userDetailsService,
+                                   MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        for (Outcome outcome : Outcome.values()) {
+            timers.put(outcome, Timer.builder(TIMER_NAME)
+                    .description("Tiempo propio del filtro JWT por petición")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        long start = System.nanoTime();
+        Outcome outcome = authenticate(request);
+        timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Outcome authenticate(HttpServletRequest request) {
         final String requestPath = request.getRequestURI();
 
         // Skip JWT filter for public endpoints ONLY
@@ -36,41 +72,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             requestPath.equals("/register") ||
             requestPath.equals("/error") ||
             requestPath.equals("/")) {
-            filterChain.doFilter(request, response);
-            return;
+            return Outcome.SKIPPED;
         }
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
+            return Outcome.ANONYMOUS;
         }
 
         try {
-            jwt = authHeader.substring(7);
-            username = jwtService.extractUsername(jwt);
+            // Una sola verificación por petición: firma y caducidad, o la entrada ya cacheada del token
+            JwtService.VerifiedToken token = jwtService.verify(authHeader.substring(7));
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            if (token.username() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Roles y estado actuales desde la caché de principales, no los del momento del login
+                AuthenticatedUser principal = userDetailsService.loadPrincipal(token.username());
 
-                if (jwtService.validateToken(jwt, userDetails)) {
+                // Un token de una cuenta borrada y recreada con el mismo username no sirve para la nueva
+                boolean sameAccount = token.userId() == null || token.userId().equals(principal.getId());
+                if (principal.isEnabled() && sameAccount) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            principal.getAuthorities()
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    return Outcome.AUTHENTICATED;
                 }
             }
+            return Outcome.ANONYMOUS;
         } catch (Exception e) {
             // Si el token es inválido, simplemente continúa sin autenticar
             // La sesión de Spring Security se manejará por otros filtros
+            return Outcome.REJECTED;
         }
-
-        filterChain.doFilter(request, response);
     }
 }
@@ -1,35 +1,110 @@
 package com.kitsune.BanckLoad.infrastructure.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Emisión y verificación de tokens JWT. La clave HMAC y el parser se construyen una sola vez.
+ * <p>
+ * Los tokens ya verificados se guardan en una caché acotada con su usuario y su caducidad: una petición
+ * que repite el mismo token no vuelve a calcular el HMAC ni a parsear los claims. Cada entrada caduca con
+ * el propio token, y los tokens inválidos nunca se guardan.
+ * <p>
+ * Los tokens emitidos para un usuario llevan su id como claim. Roles y estado no se toman del token, que vive
+ * horas: el filtro los lee de la caché de principales (TTL corto), de modo que desactivar una cuenta o
+ * retirarle un rol surte efecto en ese TTL.
+ */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String USER_ID_CLAIM = "uid";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    /**
+     * Resultado de verificar un token: firma correcta y sin caducar en el momento de la verificación.
+     * userId es null en los tokens sin claim de usuario (emitidos antes de incluirlo).
+     */
+    public record VerifiedToken(String username, Long userId, Instant expiresAt) {
+    }
+
+    private final SecretKey signKey;
+    private final JwtParser parser;
+    private final long expiration;
+    private final Clock clock;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    @Autowired
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expiration,
+                      @Value("${jwt.cache.max-size:10000}") long cacheMaxSize) {
+        this(secret, expiration, cacheMaxSize, Clock.systemUTC());
+    }
+
+    JwtService(String secret, long expiration, long cacheMaxSize, Clock clock) {
+        this.signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser()
+                .verifyWith(signKey)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.expiration = expiration;
+        this.clock = clock;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(Expiry.creating((String token, VerifiedToken verified) ->
+                        Duration.between(clock.instant(), verified.expiresAt())))
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Verifica firma y caducidad, o las toma de la caché si el token ya se verificó antes
+     *
+     * @throws io.jsonwebtoken.JwtException si el token no es válido o ha caducado
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            if (!clock.instant().isAfter(cached.expiresAt())) {
+                return cached;
+            }
+            verifiedTokens.invalidate(token);
+        }
+
+        Claims claims = extractAllClaims(token);
+        Date expiresAt = claims.getExpiration();
+        if (expiresAt == null) {
+            throw new ExpiredJwtException(null, claims, "El token no tiene fecha de caducidad");
+        }
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), userId(claims), expiresAt.toInstant());
+        verifiedTokens.put(token, verified);
+        return verified;
+    }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verify(token).expiresAt());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -38,20 +113,11 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return verify(token).username().equals(userDetails.getUsername());
     }
 
     public String generateToken(String username) {
@@ -59,18 +125,29 @@ public class JwtService {
         return createToken(claims, username);
     }
 
+    public String generateToken(AuthenticatedUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        return createToken(claims, user.getUsername());
+    }
+
     private String createToken(Map<String, Object> claims, String username) {
+        long now = clock.millis();
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .claims(claims)
+                .subject(username)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static Long userId(Claims claims) {
+        return claims.get(USER_ID_CLAIM) instanceof Number id ? id.longValue() : null;
+    }
+
+    long cachedTokens() {
+        verifiedTokens.cleanUp();
+        return verifiedTokens.estimatedSize();
     }
 }
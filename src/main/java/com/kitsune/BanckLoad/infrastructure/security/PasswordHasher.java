@@ -0,0 +1,98 @@
+package com.kitsune.BanckLoad.infrastructure.security;
+
+import com.kitsune.BanckLoad.application.exception.LoginThrottledException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cálculo de hashes BCrypt en un pool propio y acotado, fuera de los hilos de petición. Una ráfaga de logins
+ * (o un ataque de relleno de credenciales) ocupa como mucho estos hilos y no todos los núcleos: el resto
+ * de endpoints sigue respondiendo. Con la cola llena la operación se rechaza al momento (429).
+ */
+@Component
+@Slf4j
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    // Hash de referencia para usuarios inexistentes: el coste es el mismo exista o no la cuenta
+    private final String dummyHash;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${security.hashing.threads:0}") int threads,
+                          @Value("${security.hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = passwordEncoder.encode("dummy-password");
+        log.info("Pool de hashing de contraseñas: {} hilos, cola de {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Comprueba la contraseña contra el hash guardado; con encoded null compara contra un hash ficticio
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        String target = encodedPassword != null ? encodedPassword : dummyHash;
+        boolean matches = run(() -> passwordEncoder.matches(rawPassword, target));
+        return matches && encodedPassword != null;
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * El hash se generó con un coste distinto del configurado y debe recalcularse
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Pool de hashing saturado ({} en cola), operación rechazada", executor.getQueue().size());
+            throw new LoginThrottledException("Demasiados intentos de acceso en curso, inténtelo más tarde");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificación de contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.kitsune.BanckLoad.infrastructure.statistics;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.application.event.LoansImportedEvent;
+import com.kitsune.BanckLoad.application.event.LoansReviewedEvent;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.datasource.ReportingPool;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import com.kitsune.BanckLoad.infrastructure.repository.StatusCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Contadores de préstamos por estado mantenidos en hashes de Redis: "stats:global" y "stats:user:{username}",
+ * con un campo por estado y "TOTAL". Se actualizan con HINCRBY tras el commit de cada solicitud o revisión,
+ * de modo que leerlos es un HGETALL y no un recuento sobre la tabla.
+ * <p>
+ * Los incrementos solo se aplican si el hash ya existe: un hash ausente se siembra desde la base de datos
+ * en la primera lectura, y así nunca queda un hash parcial que parezca completo. La reconciliación
+ * periódica corrige cualquier deriva (incrementos perdidos por caídas de Redis o carreras con la siembra).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoanStatisticsCounters {
+
+    public static final String GLOBAL_KEY = "stats:global";
+    public static final String USER_KEY_PREFIX = "stats:user:";
+    public static final String TOTAL_FIELD = "TOTAL";
+
+    // Usuarios con movimientos desde la última reconciliación
+    static final String DIRTY_USERS_KEY = "stats:users:dirty";
+    private static final String RECONCILE_LOCK_KEY = "stats:reconcile:lock";
+    private static final int RECONCILE_USERS_PER_RUN = 500;
+
+    // HINCRBY de cada par (campo, delta) solo si el hash existe
+    private static final RedisScript<Long> INCREMENT_IF_EXISTS = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "  for i = 1, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "  return 1 " +
+            "end " +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LoanRepository loanRepository;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanCreated(LoanCreatedEvent event) {
+        String username = event.getLoan().getUsername();
+        apply(username, TOTAL_FIELD, "1", LoanStatus.PENDING.name(), "1");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanReviewed(LoanReviewedEvent event) {
+        String username = event.getLoan().getUsername();
+        apply(username, event.getPreviousStatus().name(), "-1", event.getLoan().getStatus(), "1");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoansImported(LoansImportedEvent event) {
+        // Un incremento por usuario y uno global por lote, no uno por préstamo
+        Map<String, Long> perUser = event.getLoans().stream()
+                .collect(Collectors.groupingBy(LoanResponseDTO::getUsername, Collectors.counting()));
+        long total = event.getLoans().size();
+        try {
+            redisTemplate.execute(INCREMENT_IF_EXISTS, List.of(GLOBAL_KEY),
+                    TOTAL_FIELD, String.valueOf(total), LoanStatus.PENDING.name(), String.valueOf(total));
+            perUser.forEach((username, count) -> redisTemplate.execute(INCREMENT_IF_EXISTS,
+                    List.of(USER_KEY_PREFIX + username),
+                    TOTAL_FIELD, String.valueOf(count), LoanStatus.PENDING.name(), String.valueOf(count)));
+            redisTemplate.opsForSet().add(DIRTY_USERS_KEY, perUser.keySet().toArray(String[]::new));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo actualizar los contadores del alta masiva: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoansReviewed(LoansReviewedEvent event) {
+        // Todos salen de PENDING: se agregan los deltas por usuario y estado antes de tocar Redis
+        Map<String, Map<String, Long>> perUser = new HashMap<>();
+        Map<String, Long> global = new HashMap<>();
+        for (LoanResponseDTO loan : event.getLoans()) {
+            Map<String, Long> deltas = perUser.computeIfAbsent(loan.getUsername(), u -> new HashMap<>());
+            deltas.merge(LoanStatus.PENDING.name(), -1L, Long::sum);
+            deltas.merge(loan.getStatus(), 1L, Long::sum);
+            global.merge(LoanStatus.PENDING.name(), -1L, Long::sum);
+            global.merge(loan.getStatus(), 1L, Long::sum);
+        }
+        try {
+            redisTemplate.execute(INCREMENT_IF_EXISTS, List.of(GLOBAL_KEY), toArgs(global));
+            perUser.forEach((username, deltas) -> redisTemplate.execute(INCREMENT_IF_EXISTS,
+                    List.of(USER_KEY_PREFIX + username), toArgs(deltas)));
+            redisTemplate.opsForSet().add(DIRTY_USERS_KEY, perUser.keySet().toArray(String[]::new));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo actualizar los contadores de la revisión masiva: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Conteos globales por estado; siembra el hash desde la base de datos si no existe
+     */
+    public Map<LoanStatus, Long> getGlobalCounts() {
+        Map<String, String> hash = read(GLOBAL_KEY);
+        if (hash != null) {
+            return toCounts(hash);
+        }
+        log.info("Sembrando contadores globales de préstamos desde la base de datos");
+        Map<LoanStatus, Long> counts = toCounts(loanRepository.countGroupByStatus());
+        write(GLOBAL_KEY, counts);
+        return counts;
+    }
+
+    /**
+     * Conteos por estado de un usuario; siembra el hash desde la base de datos si no existe
+     */
+    public Map<LoanStatus, Long> getUserCounts(String username) {
+        String key = USER_KEY_PREFIX + username;
+        Map<String, String> hash = read(key);
+        if (hash != null) {
+            return toCounts(hash);
+        }
+        log.info("Sembrando contadores de préstamos del usuario: {}", username);
+        Map<LoanStatus, Long> counts = toCounts(loanRepository.countGroupByStatusForUser(username));
+        write(key, counts);
+        return counts;
+    }
+
+    /**
+     * Recalcula desde la base de datos los contadores globales y los de los usuarios con movimientos.
+     * Con varios nodos solo uno la ejecuta en cada intervalo.
+     */
+    @Scheduled(fixedDelayString = "${statistics.counters.reconcile-interval:PT5M}",
+               initialDelayString = "${statistics.counters.reconcile-interval:PT5M}")
+    @ReportingPool
+    public void reconcile() {
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(RECONCILE_LOCK_KEY, "1", Duration.ofMinutes(1));
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+
+            reconcileKey(GLOBAL_KEY, toCounts(loanRepository.countGroupByStatus()));
+
+            List<String> users = redisTemplate.opsForSet().pop(DIRTY_USERS_KEY, RECONCILE_USERS_PER_RUN);
+            if (users != null) {
+                for (String username : users) {
+                    reconcileKey(USER_KEY_PREFIX + username,
+                            toCounts(loanRepository.countGroupByStatusForUser(username)));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo reconciliar los contadores de préstamos: {}", e.getMessage());
+        }
+    }
+
+    private void reconcileKey(String key, Map<LoanStatus, Long> expected) {
+        Map<String, String> current = read(key);
+        if (current != null && !toCounts(current).equals(expected)) {
+            log.warn("Deriva en contadores {}: {} -> {}", key, toCounts(current), expected);
+        }
+        write(key, expected);
+    }
+
+    private void apply(String username, String... fieldDeltas) {
+        try {
+            redisTemplate.execute(INCREMENT_IF_EXISTS, List.of(GLOBAL_KEY), (Object[]) fieldDeltas);
+            redisTemplate.execute(INCREMENT_IF_EXISTS, List.of(USER_KEY_PREFIX + username), (Object[]) fieldDeltas);
+            redisTemplate.opsForSet().add(DIRTY_USERS_KEY, username);
+        } catch (RuntimeException e) {
+            // El préstamo ya está confirmado; la reconciliación corrige el contador
+            log.warn("No se pudo actualizar los contadores de préstamos de {}: {}", username, e.getMessage());
+        }
+    }
+
+    private static Object[] toArgs(Map<String, Long> deltas) {
+        List<String> args = new ArrayList<>(deltas.size() * 2);
+        deltas.forEach((field, delta) -> {
+            args.add(field);
+            args.add(String.valueOf(delta));
+        });
+        return args.toArray();
+    }
+
+    private Map<String, String> read(String key) {
+        try {
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(key);
+            if (entries.isEmpty()) {
+                return null;
+            }
+            Map<String, String> hash = new HashMap<>();
+            entries.forEach((field, value) -> hash.put((String) field, (String) value));
+            return hash;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo leer los contadores {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, Map<LoanStatus, Long> counts) {
+        Map<String, String> hash = new HashMap<>();
+        long total = 0;
+        for (Map.Entry<LoanStatus, Long> entry : counts.entrySet()) {
+            hash.put(entry.getKey().name(), String.valueOf(entry.getValue()));
+            total += entry.getValue();
+        }
+        hash.put(TOTAL_FIELD, String.valueOf(total));
+        try {
+            redisTemplate.opsForHash().putAll(key, hash);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo guardar los contadores {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static Map<LoanStatus, Long> toCounts(List<StatusCount> rows) {
+        Map<LoanStatus, Long> counts = emptyCounts();
+        for (StatusCount row : rows) {
+            counts.put(row.getStatus(), row.getTotal());
+        }
+        return counts;
+    }
+
+    private static Map<LoanStatus, Long> toCounts(Map<String, String> hash) {
+        Map<LoanStatus, Long> counts = emptyCounts();
+        for (LoanStatus status : LoanStatus.values()) {
+            String value = hash.get(status.name());
+            if (value != null) {
+                counts.put(status, Long.parseLong(value));
+            }
+        }
+        return counts;
+    }
+
+    private static Map<LoanStatus, Long> emptyCounts() {
+        Map<LoanStatus, Long> counts = new EnumMap<>(LoanStatus.class);
+        for (LoanStatus status : LoanStatus.values()) {
+            counts.put(status, 0L);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,292 @@
+package com.kitsune.BanckLoad.infrastructure.statistics;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.application.event.LoansImportedEvent;
+import com.kitsune.BanckLoad.application.event.LoansReviewedEvent;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.datasource.ReportingPool;
+import com.kitsune.BanckLoad.infrastructure.repository.DailyRequestRollup;
+import com.kitsune.BanckLoad.infrastructure.repository.DailyStatusCount;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Rollups de préstamos por día, semana y mes en hashes de Redis "stats:rollup:{granularidad}:{inicio}".
+ * Cada solicitud suma en el bucket de su requestDate (número, importe en céntimos y plazo) y cada
+ * revisión en el de su reviewedAt (aprobados o rechazados), en las tres granularidades a la vez.
+ * <p>
+ * Al arrancar por primera vez se reconstruyen desde la base de datos con dos consultas agrupadas por día.
+ * rebuild() sustituye todos los buckets por los totales que devuelven esas consultas, pero no es atómico
+ * respecto a las escrituras: un préstamo confirmado entre las consultas y la escritura en Redis puede quedar
+ * contado dos veces o ninguna. Conviene lanzarlo con poca actividad.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoanStatisticsRollups {
+
+    public static final String KEY_PREFIX = "stats:rollup:";
+    static final String BACKFILL_MARKER_KEY = "stats:rollup:backfilled";
+    // Un nodo caído a mitad de la reconstrucción no deja el bloqueo para siempre
+    static final String BACKFILL_LOCK_KEY = "stats:rollup:backfill-lock";
+    static final Duration BACKFILL_LOCK_TTL = Duration.ofMinutes(10);
+
+    static final String REQUESTED_FIELD = "requested";
+    static final String AMOUNT_CENTS_FIELD = "amountCents";
+    static final String TERM_SUM_FIELD = "termSum";
+
+    private final StringRedisTemplate redisTemplate;
+    private final LoanRepository loanRepository;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanCreated(LoanCreatedEvent event) {
+        LoanResponseDTO loan = event.getLoan();
+        long cents = toCents(loan.getAmount());
+        long term = loan.getTerm() != null ? loan.getTerm() : 0;
+        increment(loan.getRequestDate(), operations -> {
+            operations.put(REQUESTED_FIELD, 1L);
+            operations.put(AMOUNT_CENTS_FIELD, cents);
+            operations.put(TERM_SUM_FIELD, term);
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanReviewed(LoanReviewedEvent event) {
+        LoanResponseDTO loan = event.getLoan();
+        increment(loan.getReviewedAt(), operations -> operations.put(loan.getStatus(), 1L));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoansImported(LoansImportedEvent event) {
+        // Se agregan por día antes de tocar Redis: un alta masiva suele caer entera en el mismo bucket
+        Map<LocalDate, long[]> days = new HashMap<>();
+        for (LoanResponseDTO loan : event.getLoans()) {
+            if (loan.getRequestDate() == null) {
+                continue;
+            }
+            long[] totals = days.computeIfAbsent(loan.getRequestDate().toLocalDate(), day -> new long[3]);
+            totals[0]++;
+            totals[1] += toCents(loan.getAmount());
+            totals[2] += loan.getTerm() != null ? loan.getTerm() : 0;
+        }
+        days.forEach((day, totals) -> increment(day.atStartOfDay(), operations -> {
+            operations.put(REQUESTED_FIELD, totals[0]);
+            operations.put(AMOUNT_CENTS_FIELD, totals[1]);
+            operations.put(TERM_SUM_FIELD, totals[2]);
+        }));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoansReviewed(LoansReviewedEvent event) {
+        Map<LocalDate, Map<String, Long>> days = new HashMap<>();
+        for (LoanResponseDTO loan : event.getLoans()) {
+            if (loan.getReviewedAt() == null) {
+                continue;
+            }
+            days.computeIfAbsent(loan.getReviewedAt().toLocalDate(), day -> new HashMap<>())
+                    .merge(loan.getStatus(), 1L, Long::sum);
+        }
+        days.forEach((day, totals) -> increment(day.atStartOfDay(), operations -> operations.putAll(totals)));
+    }
+
+    /**
+     * Reconstrucción inicial: la ejecuta un único nodo de los que arrancan sin rollups. El bloqueo caduca
+     * solo y la marca se escribe cuando la reconstrucción termina: si falla, el siguiente arranque reintenta.
+     */
+    @ReportingPool
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfMissing() {
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(BACKFILL_MARKER_KEY))) {
+                return;
+            }
+            Boolean locked = redisTemplate.opsForValue()
+                    .setIfAbsent(BACKFILL_LOCK_KEY, LocalDateTime.now().toString(), BACKFILL_LOCK_TTL);
+            if (!Boolean.TRUE.equals(locked)) {
+                return;
+            }
+            try {
+                rebuild();
+                redisTemplate.opsForValue().set(BACKFILL_MARKER_KEY, LocalDateTime.now().toString());
+            } finally {
+                redisTemplate.delete(BACKFILL_LOCK_KEY);
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo reconstruir los rollups de estadísticas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula todos los buckets desde la base de datos y los sustituye en Redis. Los buckets existentes se
+     * borran en la misma transacción (MULTI) que escribe los nuevos: no quedan campos ni buckets sin
+     * actividad de una versión anterior, y las lecturas ven los buckets antiguos o los nuevos, nunca una mezcla.
+     *
+     * @return número de buckets escritos
+     */
+    @ReportingPool
+    public int rebuild() {
+        log.info("Reconstruyendo rollups de estadísticas desde la base de datos");
+        Map<String, Map<String, Long>> buckets = new HashMap<>();
+
+        for (DailyRequestRollup row : loanRepository.sumRequestsByDay()) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                Map<String, Long> bucket = buckets.computeIfAbsent(
+                        key(granularity, granularity.bucketStart(row.getDay())), k -> new HashMap<>());
+                bucket.merge(REQUESTED_FIELD, row.getRequested(), Long::sum);
+                bucket.merge(AMOUNT_CENTS_FIELD, toCents(row.getAmount()), Long::sum);
+                bucket.merge(TERM_SUM_FIELD, row.getTermSum(), Long::sum);
+            }
+        }
+        for (DailyStatusCount row : loanRepository.countReviewsByDay()) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                buckets.computeIfAbsent(key(granularity, granularity.bucketStart(row.getDay())), k -> new HashMap<>())
+                        .merge(row.getStatus().name(), row.getTotal(), Long::sum);
+            }
+        }
+
+        Set<String> stale = existingBucketKeys();
+        stale.addAll(buckets.keySet());
+        redisTemplate.execute(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                if (!stale.isEmpty()) {
+                    ops.unlink(stale);
+                }
+                buckets.forEach((key, values) -> {
+                    Map<String, String> hash = new HashMap<>();
+                    values.forEach((field, value) -> hash.put(field, String.valueOf(value)));
+                    ops.opsForHash().putAll(key, hash);
+                });
+                return ops.exec();
+            }
+        });
+        log.info("Rollups de estadísticas reconstruidos: {} buckets", buckets.size());
+        return buckets.size();
+    }
+
+    /**
+     * Buckets consecutivos desde el que contiene from hasta el que contiene to, en un único viaje a Redis.
+     * Los buckets sin actividad se devuelven a cero.
+     */
+    public List<RollupBucket> getRange(RollupGranularity granularity, LocalDate from, LocalDate to) {
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = granularity.bucketStart(from); !start.isAfter(to); start = granularity.next(start)) {
+            starts.add(start);
+        }
+
+        List<Object> hashes = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (LocalDate start : starts) {
+                    ops.opsForHash().entries(key(granularity, start));
+                }
+                return null;
+            }
+        });
+
+        List<RollupBucket> buckets = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            Map<?, ?> hash = hashes.get(i) instanceof Map<?, ?> map ? map : Map.of();
+            LocalDate start = starts.get(i);
+            buckets.add(new RollupBucket(
+                    start,
+                    granularity.next(start),
+                    field(hash, REQUESTED_FIELD),
+                    field(hash, AMOUNT_CENTS_FIELD),
+                    field(hash, TERM_SUM_FIELD),
+                    field(hash, LoanStatus.APPROVED.name()),
+                    field(hash, LoanStatus.REJECTED.name())));
+        }
+        return buckets;
+    }
+
+    // SCAN por granularidad: el prefijo común incluye también la marca de reconstrucción
+    private Set<String> existingBucketKeys() {
+        Set<String> keys = new HashSet<>();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            ScanOptions options = ScanOptions.scanOptions()
+                    .match(KEY_PREFIX + granularity.name() + ":*")
+                    .count(1000)
+                    .build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                cursor.forEachRemaining(keys::add);
+            }
+        }
+        return keys;
+    }
+
+    private void increment(LocalDateTime timestamp, Consumer<Map<String, Long>> deltas) {
+        if (timestamp == null) {
+            return;
+        }
+        Map<String, Long> fields = new LinkedHashMap<>();
+        deltas.accept(fields);
+        LocalDate day = timestamp.toLocalDate();
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (RollupGranularity granularity : RollupGranularity.values()) {
+                        String key = key(granularity, granularity.bucketStart(day));
+                        fields.forEach((field, delta) -> ops.opsForHash().increment(key, field, delta));
+                    }
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            // El préstamo ya está confirmado; rebuild() recupera el bucket
+            log.warn("No se pudo actualizar los rollups del día {}: {}", day, e.getMessage());
+        }
+    }
+
+    static String key(RollupGranularity granularity, LocalDate bucketStart) {
+        return KEY_PREFIX + granularity.name() + ":" + bucketStart;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static long field(Map<?, ?> hash, String field) {
+        Object value = hash.get(field);
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+}
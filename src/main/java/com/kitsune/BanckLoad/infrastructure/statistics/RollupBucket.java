@@ -0,0 +1,20 @@
+package com.kitsune.BanckLoad.infrastructure.statistics;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Valores acumulados de un bucket. Las solicitudes se imputan por requestDate y las revisiones por
+ * reviewedAt; los importes se guardan en céntimos para poder sumarlos con HINCRBY.
+ */
+@Value
+public class RollupBucket {
+    LocalDate start;
+    LocalDate end;
+    long requested;
+    long amountCents;
+    long termSum;
+    long approved;
+    long rejected;
+}
@@ -0,0 +1,41 @@
+-- Esquema inicial, idéntico al que generaba Hibernate con ddl-auto=update (ver banckload_dump_*.sql).
+-- En bases de datos existentes Flyway lo marca como aplicado (baseline) y empieza en V2.
+
+CREATE TABLE users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username    VARCHAR(50)  NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    full_name   VARCHAR(255) NOT NULL,
+    enabled     BOOLEAN      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT users_username_key UNIQUE (username),
+    CONSTRAINT users_email_key UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role    VARCHAR(255),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE loans (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    amount           NUMERIC(19, 2) NOT NULL,
+    term             INTEGER        NOT NULL,
+    purpose          VARCHAR(1000),
+    user_id          BIGINT         NOT NULL,
+    status           VARCHAR(255)   NOT NULL,
+    rejection_reason VARCHAR(500),
+    request_date     TIMESTAMP(6)   NOT NULL,
+    reviewed_at      TIMESTAMP(6),
+    reviewed_by      BIGINT,
+    updated_at       TIMESTAMP(6)   NOT NULL,
+    -- = ANY (ARRAY[...]) y no IN (...): es la forma que guarda PostgreSQL, y H2 2.4 invalida el IN
+    -- de cadenas de un CHECK cuando se cierra la conexión que lo creó
+    CONSTRAINT loans_status_check CHECK (status = ANY (ARRAY['PENDING', 'APPROVED', 'REJECTED'])),
+    CONSTRAINT loans_term_check CHECK (term >= 1),
+    CONSTRAINT fk_loans_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_loans_reviewed_by FOREIGN KEY (reviewed_by) REFERENCES users (id)
+);
@@ -0,0 +1,3 @@
+-- Ids de préstamos por secuencia con bloques de 50 (Loan.ID_ALLOCATION_SIZE) para agrupar los INSERT.
+-- IF NOT EXISTS: las bases de datos que ya pasaron por ddl-auto=update la tienen creada.
+CREATE SEQUENCE IF NOT EXISTS loans_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,21 @@
+-- Índices para los caminos de acceso de LoanRepository y UserRepository. Versión de H2 (tests y desarrollo):
+-- la de PostgreSQL los crea con CONCURRENTLY para no bloquear las escrituras.
+
+-- Préstamos de un usuario por estado: findByUserId, findByUserIdAndStatus, countGroupByStatusForUser
+-- y los recorridos reactivos por usuario
+CREATE INDEX idx_loans_user_status ON loans (user_id, status);
+
+-- Dashboard del usuario: primera página y siguientes por keyset (requestDate, id) descendente
+CREATE INDEX idx_loans_user_request_date ON loans (user_id, request_date DESC, id DESC);
+
+-- Listado completo del administrador por keyset y rangos de fecha de la exportación
+CREATE INDEX idx_loans_request_date ON loans (request_date DESC, id DESC);
+
+-- findByStatus, countByStatus y recorridos por estado
+CREATE INDEX idx_loans_status ON loans (status);
+
+-- Sincronización incremental del almacén columnar (updatedAt, id)
+CREATE INDEX idx_loans_updated_at ON loans (updated_at, id);
+
+-- Roles EAGER: se leen por user_id en cada carga de usuario y la tabla no tiene clave primaria
+CREATE INDEX idx_user_roles_user ON user_roles (user_id);
@@ -0,0 +1,2 @@
+-- H2 no admite índices parciales: mismo camino de acceso con el estado como primera columna
+CREATE INDEX idx_loans_pending_request_date ON loans (status, request_date DESC, id DESC);
@@ -0,0 +1,7 @@
+-- Los préstamos existentes se crearon con la identidad de la columna (loans_id_seq). Se adelanta loans_seq
+-- por encima del mayor id para que los bloques nuevos no colisionen; nunca retrocede.
+-- Con el optimizador pooled, nextval devuelve el último id del bloque: el siguiente bloque empieza en
+-- valor + 1 solo si valor >= MAX(id) + 50.
+SELECT setval('loans_seq', GREATEST(
+        (SELECT COALESCE(MAX(id), 0) FROM loans) + 50,
+        (SELECT last_value FROM loans_seq)));
@@ -0,0 +1,24 @@
+-- Índices para los caminos de acceso de LoanRepository y UserRepository.
+-- CONCURRENTLY construye cada índice sin bloquear las escrituras de la tabla, pero no admite transacción:
+-- la migración se ejecuta fuera de ella (V4__loan_and_user_indexes.sql.conf). Si falla a medias, PostgreSQL
+-- deja el índice INVALID: hay que borrarlo (DROP INDEX CONCURRENTLY) antes de repetir la migración, porque
+-- IF NOT EXISTS lo daría por creado.
+
+-- Préstamos de un usuario por estado: findByUserId, findByUserIdAndStatus, countGroupByStatusForUser
+-- y los recorridos reactivos por usuario
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_user_status ON loans (user_id, status);
+
+-- Dashboard del usuario: primera página y siguientes por keyset (requestDate, id) descendente
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_user_request_date ON loans (user_id, request_date DESC, id DESC);
+
+-- Listado completo del administrador por keyset y rangos de fecha de la exportación
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_request_date ON loans (request_date DESC, id DESC);
+
+-- findByStatus, countByStatus y recorridos por estado
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_status ON loans (status);
+
+-- Sincronización incremental del almacén columnar (updatedAt, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_updated_at ON loans (updated_at, id);
+
+-- Roles EAGER: se leen por user_id en cada carga de usuario y la tabla no tiene clave primaria
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_roles_user ON user_roles (user_id);
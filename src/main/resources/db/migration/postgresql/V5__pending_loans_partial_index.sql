@@ -0,0 +1,8 @@
+-- Cola de revisión del administrador (préstamos PENDING por keyset descendente). Índice parcial: solo
+-- contiene los pendientes, así que sigue siendo pequeño aunque la tabla crezca con el histórico.
+-- CONCURRENTLY no bloquea las escrituras de la tabla mientras se construye, pero no admite transacción:
+-- la migración se ejecuta fuera de ella (V5__pending_loans_partial_index.sql.conf). Si falla a medias,
+-- PostgreSQL deja el índice INVALID: hay que borrarlo (DROP INDEX CONCURRENTLY) antes de repetir la
+-- migración, porque IF NOT EXISTS lo daría por creado.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_pending_request_date ON loans (request_date DESC, id DESC)
+    WHERE status = 'PENDING';
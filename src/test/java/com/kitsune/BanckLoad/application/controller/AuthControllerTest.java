@@ -0,0 +1,78 @@
+package com.kitsune.BanckLoad.application.controller;
+
+import com.kitsune.BanckLoad.application.dto.RegisterRequestDTO;
+import com.kitsune.BanckLoad.application.exception.GlobalExceptionHandler;
+import com.kitsune.BanckLoad.application.exception.LoginThrottledException;
+import com.kitsune.BanckLoad.application.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class AuthControllerTest {
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private AuthController authController;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testRegister_ThrottledHashingReturns429() throws Exception {
+        when(authService.register(any(RegisterRequestDTO.class)))
+                .thenThrow(new LoginThrottledException("Demasiados intentos de acceso en curso"));
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonMapper.writeValueAsString(request())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Demasiados intentos de acceso en curso"));
+    }
+
+    @Test
+    void testRegister_BusinessErrorReturns400() throws Exception {
+        when(authService.register(any(RegisterRequestDTO.class)))
+                .thenThrow(new RuntimeException("El email ya está registrado"));
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonMapper.writeValueAsString(request())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fullName").value("El email ya está registrado"));
+    }
+
+    private static RegisterRequestDTO request() {
+        return RegisterRequestDTO.builder()
+                .username("newuser")
+                .email("newuser@test.com")
+                .password("password123")
+                .fullName("New User")
+                .build();
+    }
+}
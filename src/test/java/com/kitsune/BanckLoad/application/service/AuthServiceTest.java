@@ -4,21 +4,28 @@ import com.kitsune.BanckLoad.application.dto.AuthResponseDTO;
 import com.kitsune.BanckLoad.application.dto.LoginRequestDTO;
 import com.kitsune.BanckLoad.application.dto.RegisterRequestDTO;
 import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.registration.UserIdentityIndex;
 import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.application.exception.LoginThrottledException;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
 import com.kitsune.BanckLoad.infrastructure.security.JwtService;
+import com.kitsune.BanckLoad.infrastructure.security.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,13 +38,16 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private JwtService jwtService;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private UserIdentityIndex identityIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @InjectMocks
     private AuthService authService;
@@ -55,6 +65,10 @@ class AuthServiceTest {
                 .roles(Set.of("USER"))
                 .enabled(true)
                 .build();
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
     }
 
     @Test
@@ -67,11 +81,13 @@ class AuthServiceTest {
                 .fullName("New User")
                 .build();
 
+        when(identityIndex.mightContainUsername("newuser")).thenReturn(true);
+        when(identityIndex.mightContainEmail("newuser@test.com")).thenReturn(true);
         when(userRepository.existsByUsername("newuser")).thenReturn(false);
         when(userRepository.existsByEmail("newuser@test.com")).thenReturn(false);
-        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(passwordHasher.encode("password123")).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
-        when(jwtService.generateToken("newuser")).thenReturn("jwt-token");
+        when(jwtService.generateToken(any(AuthenticatedUser.class))).thenReturn("jwt-token");
 
         // Act
         AuthResponseDTO response = authService.register(request);
@@ -81,7 +97,80 @@ class AuthServiceTest {
         assertEquals("jwt-token", response.getToken());
         assertEquals("Bearer", response.getType());
         verify(userRepository, times(1)).save(any(User.class));
-        verify(jwtService, times(1)).generateToken(anyString());
+        verify(jwtService, times(1)).generateToken(any(AuthenticatedUser.class));
+        verify(identityIndex).record("newuser", "newuser@test.com");
+    }
+
+    @Test
+    void testRegister_HashesBeforeOpeningTransaction() {
+        // Arrange
+        RegisterRequestDTO request = RegisterRequestDTO.builder()
+                .username("newuser")
+                .email("newuser@test.com")
+                .password("password123")
+                .fullName("New User")
+                .build();
+
+        when(identityIndex.mightContainUsername("newuser")).thenReturn(true);
+        when(userRepository.existsByUsername("newuser")).thenReturn(false);
+        when(passwordHasher.encode("password123")).thenReturn("encodedPassword");
+
+        // Act
+        authService.register(request);
+
+        // Assert: comprobaciones e INSERT dentro de la transacción, el hash antes de abrirla
+        InOrder order = inOrder(passwordHasher, transactionTemplate, userRepository);
+        order.verify(passwordHasher).encode("password123");
+        order.verify(transactionTemplate).executeWithoutResult(any());
+        order.verify(userRepository).existsByUsername("newuser");
+        order.verify(userRepository).save(any(User.class));
+    }
+
+    @Test
+    void testRegister_DefiniteNegativeSkipsExistenceQueries() {
+        // Arrange
+        RegisterRequestDTO request = RegisterRequestDTO.builder()
+                .username("newuser")
+                .email("newuser@test.com")
+                .password("password123")
+                .fullName("New User")
+                .build();
+
+        when(identityIndex.mightContainUsername("newuser")).thenReturn(false);
+        when(identityIndex.mightContainEmail("newuser@test.com")).thenReturn(false);
+        when(passwordHasher.encode("password123")).thenReturn("encodedPassword");
+        when(jwtService.generateToken(any(AuthenticatedUser.class))).thenReturn("jwt-token");
+
+        // Act
+        AuthResponseDTO response = authService.register(request);
+
+        // Assert: solo el INSERT llega a la base de datos
+        assertEquals("jwt-token", response.getToken());
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository, times(1)).save(any(User.class));
+    }
+
+    @Test
+    void testRegister_UniqueConstraintDecidesRace() {
+        // Arrange
+        RegisterRequestDTO request = RegisterRequestDTO.builder()
+                .username("newuser")
+                .email("newuser@test.com")
+                .password("password123")
+                .fullName("New User")
+                .build();
+
+        when(identityIndex.mightContainUsername("newuser")).thenReturn(false);
+        when(identityIndex.mightContainEmail("newuser@test.com")).thenReturn(false);
+        when(passwordHasher.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("users_username_key"));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> authService.register(request));
+        assertEquals("El nombre de usuario o el email ya están registrados", exception.getMessage());
+        verify(identityIndex, never()).record(anyString(), anyString());
+        verify(jwtService, never()).generateToken(any(AuthenticatedUser.class));
     }
 
     @Test
@@ -94,6 +183,7 @@ class AuthServiceTest {
                 .fullName("New User")
                 .build();
 
+        when(identityIndex.mightContainUsername("existinguser")).thenReturn(true);
         when(userRepository.existsByUsername("existinguser")).thenReturn(true);
 
         // Act & Assert
@@ -113,7 +203,8 @@ class AuthServiceTest {
                 .fullName("New User")
                 .build();
 
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
+        when(identityIndex.mightContainUsername("newuser")).thenReturn(false);
+        when(identityIndex.mightContainEmail("existing@test.com")).thenReturn(true);
         when(userRepository.existsByEmail("existing@test.com")).thenReturn(true);
 
         // Act & Assert
@@ -127,14 +218,13 @@ class AuthServiceTest {
     void testLogin_Success() {
         // Arrange
         LoginRequestDTO request = LoginRequestDTO.builder()
-                .username("testuser")
+                .email("test@test.com")
                 .password("password123")
                 .build();
 
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(null);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(jwtService.generateToken("testuser")).thenReturn("jwt-token");
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password123", "encodedPassword")).thenReturn(true);
+        when(jwtService.generateToken(AuthenticatedUser.from(testUser))).thenReturn("jwt-token");
 
         // Act
         AuthResponseDTO response = authService.login(request);
@@ -144,43 +234,99 @@ class AuthServiceTest {
         assertEquals("jwt-token", response.getToken());
         assertEquals("testuser", response.getUsername());
         assertEquals("test@test.com", response.getEmail());
-        verify(authenticationManager, times(1)).authenticate(any());
-        verify(jwtService, times(1)).generateToken("testuser");
+        // Una sola consulta del usuario por login
+        verify(userRepository, times(1)).findByEmail("test@test.com");
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository, never()).updatePasswordHash(any(), any(), any(), any());
     }
 
     @Test
     void testLogin_InvalidCredentials() {
         // Arrange
         LoginRequestDTO request = LoginRequestDTO.builder()
-                .username("testuser")
+                .email("test@test.com")
                 .password("wrongpassword")
                 .build();
 
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenThrow(new BadCredentialsException("Invalid credentials"));
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("wrongpassword", "encodedPassword")).thenReturn(false);
 
         // Act & Assert
         assertThrows(BadCredentialsException.class, () -> authService.login(request));
-        verify(jwtService, never()).generateToken(anyString());
+        verify(jwtService, never()).generateToken(any(AuthenticatedUser.class));
     }
 
     @Test
     void testLogin_UserNotFound() {
         // Arrange
         LoginRequestDTO request = LoginRequestDTO.builder()
-                .username("nonexistent")
+                .email("nonexistent@test.com")
                 .password("password123")
                 .build();
 
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(null);
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("nonexistent@test.com")).thenReturn(Optional.empty());
 
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        // Act & Assert: mismo error y mismo coste de hashing que con una contraseña incorrecta
+        RuntimeException exception = assertThrows(BadCredentialsException.class,
                 () -> authService.login(request));
-        assertTrue(exception.getMessage().contains("Usuario no encontrado"));
-        verify(jwtService, never()).generateToken(anyString());
+        assertEquals("Credenciales inválidas", exception.getMessage());
+        verify(passwordHasher).matches("password123", null);
+        verify(jwtService, never()).generateToken(any(AuthenticatedUser.class));
     }
-}
 
+    @Test
+    void testLogin_DisabledUser() {
+        // Arrange
+        testUser.setEnabled(false);
+        LoginRequestDTO request = LoginRequestDTO.builder()
+                .email("test@test.com")
+                .password("password123")
+                .build();
+
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password123", "encodedPassword")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(DisabledException.class, () -> authService.login(request));
+        verify(jwtService, never()).generateToken(any(AuthenticatedUser.class));
+    }
+
+    @Test
+    void testLogin_RehashesWhenCostFactorChanged() {
+        // Arrange
+        LoginRequestDTO request = LoginRequestDTO.builder()
+                .email("test@test.com")
+                .password("password123")
+                .build();
+
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password123", "encodedPassword")).thenReturn(true);
+        when(passwordHasher.needsRehash("encodedPassword")).thenReturn(true);
+        when(passwordHasher.encode("password123")).thenReturn("strongerHash");
+        when(jwtService.generateToken(any(AuthenticatedUser.class))).thenReturn("jwt-token");
+
+        // Act
+        AuthResponseDTO response = authService.login(request);
+
+        // Assert
+        assertEquals("jwt-token", response.getToken());
+        verify(userRepository).updatePasswordHash(eq(1L), eq("encodedPassword"), eq("strongerHash"), any());
+    }
+
+    @Test
+    void testLogin_ThrottledWhenHashingPoolIsFull() {
+        // Arrange
+        LoginRequestDTO request = LoginRequestDTO.builder()
+                .email("test@test.com")
+                .password("password123")
+                .build();
+
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password123", "encodedPassword"))
+                .thenThrow(new LoginThrottledException("Demasiados intentos de acceso en curso"));
+
+        // Act & Assert
+        assertThrows(LoginThrottledException.class, () -> authService.login(request));
+        verify(jwtService, never()).generateToken(any(AuthenticatedUser.class));
+    }
+}
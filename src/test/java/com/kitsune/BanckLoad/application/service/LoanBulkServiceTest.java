@@ -0,0 +1,224 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanBulkItemDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkResultDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkReviewItemDTO;
+import com.kitsune.BanckLoad.application.dto.LoanBulkReviewResultDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.Loan;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin la transacción de cada test: el servicio abre una por tramo, como en producción
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({LoanBulkService.class, LoanBulkServiceTest.Config.class})
+class LoanBulkServiceTest {
+
+    private static final int VALID_ROWS = 120;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("loans", "userLoans", "adminLoans");
+        }
+    }
+
+    @Autowired
+    private LoanBulkService loanBulkService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private AuthenticatedUser admin;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(user("alice", Set.of("USER")));
+        userRepository.save(user("bob", Set.of("USER")));
+        admin = AuthenticatedUser.from(userRepository.save(user("admin", Set.of("ADMIN", "USER"))));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        loanRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testIngest_BatchedInsertsAndPerRowErrors() {
+        cacheManager.getCache("userLoans").put("alice", "page");
+        cacheManager.getCache("userLoans").put("carol", "page");
+        cacheManager.getCache("adminLoans").put("all", "page");
+
+        List<LoanBulkItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < VALID_ROWS; i++) {
+            items.add(item(i % 2 == 0 ? "alice" : "bob", "1000.00"));
+        }
+        items.add(5, item("nadie", "1000.00"));
+        items.add(10, item("admin", "1000.00"));
+        items.add(20, item("alice", "50.00"));
+
+        LoanBulkResultDTO result = loanBulkService.ingest(items);
+
+        assertEquals(VALID_ROWS + 3, result.getReceived());
+        assertEquals(VALID_ROWS, result.getCreated());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(5, 10, 20), result.getErrors().stream().map(LoanBulkResultDTO.RowError::getIndex).toList());
+        assertEquals("Usuario no encontrado", result.getErrors().get(0).getMessage());
+        assertEquals("Los administradores no pueden solicitar préstamos", result.getErrors().get(1).getMessage());
+        assertEquals("El monto mínimo es 100", result.getErrors().get(2).getMessage());
+        assertNull(result.getLoanIds().get(5));
+        assertNotNull(result.getLoanIds().get(6));
+        assertEquals(VALID_ROWS, loanRepository.count());
+
+        // Una consulta de usuarios y los INSERT agrupados en lotes de 50, no uno por préstamo
+        assertEquals(VALID_ROWS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < 20,
+                "Sentencias preparadas: " + statistics.getPrepareStatementCount());
+
+        assertNull(cacheManager.getCache("userLoans").get("alice"));
+        assertNotNull(cacheManager.getCache("userLoans").get("carol"));
+        assertNull(cacheManager.getCache("adminLoans").get("all"));
+    }
+
+    @Test
+    void testReview_SetBasedTransitionsWithPerIdOutcomes() {
+        List<LoanBulkItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(item(i % 2 == 0 ? "alice" : "bob", "1000.00"));
+        }
+        List<Long> ids = loanBulkService.ingest(items).getLoanIds();
+
+        Loan reviewed = loanRepository.findById(ids.get(4)).orElseThrow();
+        reviewed.setStatus(LoanStatus.APPROVED);
+        loanRepository.save(reviewed);
+
+        cacheManager.getCache("loans").put(ids.get(0), "loan");
+        cacheManager.getCache("loans").put(ids.get(3), "loan");
+        cacheManager.getCache("userLoans").put("alice", "page");
+        cacheManager.getCache("adminLoans").put("pending", "page");
+        statistics.clear();
+
+        LoanBulkReviewResultDTO result = loanBulkService.review(List.of(
+                review(ids.get(0), "APPROVED", null),
+                review(ids.get(1), "rejected", "Ingresos insuficientes"),
+                review(ids.get(2), "REJECTED", "Ingresos insuficientes"),
+                review(ids.get(4), "APPROVED", null),
+                review(999_999L, "APPROVED", null),
+                review(ids.get(3), "CANCELLED", null),
+                review(ids.get(0), "REJECTED", "Repetido")), admin);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(7, result.getReceived());
+        assertEquals(1, result.getApproved());
+        assertEquals(2, result.getRejected());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(
+                LoanBulkReviewResultDTO.Status.APPROVED,
+                LoanBulkReviewResultDTO.Status.REJECTED,
+                LoanBulkReviewResultDTO.Status.REJECTED,
+                LoanBulkReviewResultDTO.Status.ALREADY_REVIEWED,
+                LoanBulkReviewResultDTO.Status.NOT_FOUND,
+                LoanBulkReviewResultDTO.Status.INVALID_ACTION,
+                LoanBulkReviewResultDTO.Status.DUPLICATE),
+                result.getResults().stream().map(LoanBulkReviewResultDTO.Outcome::getStatus).toList());
+
+        assertEquals(LoanStatus.APPROVED, loanRepository.findById(ids.get(0)).orElseThrow().getStatus());
+        LoanResponseDTO rejected = loanRepository.findRowById(ids.get(2)).orElseThrow();
+        assertEquals("REJECTED", rejected.getStatus());
+        assertEquals("Ingresos insuficientes", rejected.getRejectionReason());
+        assertEquals("admin", rejected.getReviewedByUsername());
+        assertEquals(LoanStatus.PENDING, loanRepository.findById(ids.get(3)).orElseThrow().getStatus());
+
+        // Los UPDATE van en un lote JDBC, fuera de Hibernate: solo la consulta de resultados pasa por él,
+        // y el administrador llega como principal sin consultar la tabla users
+        assertEquals(1, statements);
+
+        assertNull(cacheManager.getCache("loans").get(ids.get(0)));
+        assertNotNull(cacheManager.getCache("loans").get(ids.get(3)));
+        assertNull(cacheManager.getCache("userLoans").get("alice"));
+        assertNull(cacheManager.getCache("adminLoans").get("pending"));
+    }
+
+    private static LoanBulkReviewItemDTO review(Long loanId, String action, String rejectionReason) {
+        return new LoanBulkReviewItemDTO(loanId, action, rejectionReason);
+    }
+
+    private static LoanBulkItemDTO item(String username, String amount) {
+        return LoanBulkItemDTO.builder()
+                .username(username)
+                .amount(new BigDecimal(amount))
+                .term(12)
+                .purpose("Migración de canal")
+                .build();
+    }
+
+    private static User user(String username, Set<String> roles) {
+        return User.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .password("password")
+                .fullName(username)
+                .roles(roles)
+                .enabled(true)
+                .build();
+    }
+}
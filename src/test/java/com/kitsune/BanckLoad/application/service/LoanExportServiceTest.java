@@ -0,0 +1,105 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanExportServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private LoanExportService exportService;
+
+    private LoanResponseDTO loan;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new LoanExportService(loanRepository, jsonMapper);
+        loan = LoanResponseDTO.builder()
+                .id(1L)
+                .amount(new BigDecimal("5000.00"))
+                .term(12)
+                .purpose("Compra de \"coche\", usado")
+                .status("REJECTED")
+                .statusDisplayName("Rechazado")
+                .rejectionReason("=HYPERLINK(\"x\")")
+                .requestDate(LocalDateTime.of(2026, 1, 5, 10, 30))
+                .reviewedAt(LocalDateTime.of(2026, 1, 6, 9, 0))
+                .reviewedByUsername("admin")
+                .userId(2L)
+                .username("alice")
+                .build();
+    }
+
+    @Test
+    void testExportCsv_EscapesTextAndFormulas() throws IOException {
+        when(loanRepository.streamForExport(any(), any(), any())).thenReturn(Stream.of(loan));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(LoanExportService.Format.CSV, null, null, null, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, rows);
+        assertEquals(LoanExportService.CSV_HEADER, lines[0]);
+        assertEquals("1,2,alice,5000.00,12,REJECTED,2026-01-05T10:30,2026-01-06T09:00,admin," +
+                "\"'=HYPERLINK(\"\"x\"\")\",\"Compra de \"\"coche\"\", usado\"", lines[1]);
+    }
+
+    @Test
+    void testExportNdjsonGzip_OneObjectPerLine() throws IOException {
+        when(loanRepository.streamForExport(any(), any(), any())).thenReturn(Stream.of(loan, loan));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(LoanExportService.Format.NDJSON, null, null, null, true, out);
+
+        String content;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = content.split("\n");
+        assertEquals(2, lines.length);
+        JsonNode node = jsonMapper.readTree(lines[0]);
+        assertEquals(1L, node.get("id").asLong());
+        assertEquals("alice", node.get("username").asString());
+    }
+
+    @Test
+    void testExport_FiltersPassedToQueryWithInclusiveEndDate() throws IOException {
+        when(loanRepository.streamForExport(any(), any(), any())).thenReturn(Stream.empty());
+
+        long rows = exportService.export(LoanExportService.Format.CSV, Set.of(LoanStatus.APPROVED),
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), false, new ByteArrayOutputStream());
+
+        assertEquals(0, rows);
+        verify(loanRepository).streamForExport(eq(EnumSet.of(LoanStatus.APPROVED)),
+                eq(LocalDateTime.of(2026, 1, 1, 0, 0)), eq(LocalDateTime.of(2026, 2, 1, 0, 0)));
+    }
+}
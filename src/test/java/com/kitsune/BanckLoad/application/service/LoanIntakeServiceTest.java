@@ -0,0 +1,232 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanBulkItemDTO;
+import com.kitsune.BanckLoad.application.dto.LoanRequestDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.exception.LoanIntakeRejectedException;
+import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanIntakeServiceTest {
+
+    @Mock
+    private LoanService loanService;
+
+    @Mock
+    private LoanBulkService loanBulkService;
+
+    private LoanIntakeService intake;
+
+    @AfterEach
+    void tearDown() {
+        if (intake != null) {
+            intake.stop();
+        }
+    }
+
+    @Test
+    void testSubmit_DisabledUsesSynchronousPath() throws Exception {
+        intake = new LoanIntakeService(loanService, loanBulkService, false, 10, 10, Duration.ofMillis(5));
+        intake.start();
+        LoanResponseDTO loan = LoanResponseDTO.builder().id(1L).username("alice").build();
+        AuthenticatedUser alice = principal("alice");
+        when(loanService.requestLoan(any(), eq(alice))).thenReturn(loan);
+
+        CompletableFuture<LoanResponseDTO> future = intake.submit(request("1000.00"), alice);
+
+        assertTrue(future.isDone());
+        assertSame(loan, future.get());
+        verifyNoInteractions(loanBulkService);
+    }
+
+    @Test
+    void testSubmit_GroupsConcurrentRequestsIntoBatches() throws Exception {
+        intake = new LoanIntakeService(loanService, loanBulkService, true, 1_000, 50, Duration.ofMillis(20));
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        Set<String> knownUsers = ConcurrentHashMap.newKeySet();
+        AtomicLong ids = new AtomicLong();
+        when(loanBulkService.insert(any(), any())).thenAnswer(invocation -> {
+            List<LoanBulkItemDTO> items = invocation.getArgument(0);
+            Map<String, User> users = invocation.getArgument(1);
+            batchSizes.add(items.size());
+            knownUsers.addAll(users.keySet());
+            LoanResponseDTO[] saved = new LoanResponseDTO[items.size()];
+            String[] errors = new String[items.size()];
+            for (int i = 0; i < items.size(); i++) {
+                if ("nadie".equals(items.get(i).getUsername())) {
+                    errors[i] = "Usuario no encontrado";
+                } else {
+                    saved[i] = LoanResponseDTO.builder()
+                            .id(ids.incrementAndGet())
+                            .username(items.get(i).getUsername())
+                            .amount(items.get(i).getAmount())
+                            .build();
+                }
+            }
+            return new LoanBulkService.Rows(saved, errors);
+        });
+        intake.start();
+
+        List<CompletableFuture<LoanResponseDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(intake.submit(request(1000 + i + ".00"), principal("user" + i)));
+        }
+        CompletableFuture<LoanResponseDTO> unknown = intake.submit(request("1000.00"), principal("nadie"));
+        AuthenticatedUser admin = new AuthenticatedUser(0L, "admin", Set.of("ADMIN"), true);
+        assertThrows(RuntimeException.class, () -> intake.submit(request("1000.00"), admin));
+
+        for (int i = 0; i < futures.size(); i++) {
+            LoanResponseDTO loan = futures.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals("user" + i, loan.getUsername());
+            assertEquals(new BigDecimal(1000 + i + ".00"), loan.getAmount());
+        }
+        ExecutionException error = assertThrows(ExecutionException.class, () -> unknown.get(5, TimeUnit.SECONDS));
+        assertEquals("Usuario no encontrado", error.getCause().getMessage());
+
+        // Menos lotes que solicitudes y ninguno por encima de max-batch
+        assertEquals(201, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < 201 / 2, "Lotes: " + batchSizes);
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 50), "Lotes: " + batchSizes);
+        // Los usuarios llegan resueltos desde los principales
+        assertEquals(201, knownUsers.size());
+        verifyNoInteractions(loanService);
+    }
+
+    @Test
+    void testSubmit_RejectsWhenQueueIsFull() throws Exception {
+        intake = new LoanIntakeService(loanService, loanBulkService, true, 2, 1, Duration.ZERO);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(loanBulkService.insert(any(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<LoanBulkItemDTO> items = invocation.getArgument(0);
+            return new LoanBulkService.Rows(new LoanResponseDTO[]{
+                    LoanResponseDTO.builder().username(items.get(0).getUsername()).build()}, new String[1]);
+        });
+        intake.start();
+
+        // El escritor queda ocupado con el primer lote y la cola admite dos más
+        CompletableFuture<LoanResponseDTO> first = intake.submit(request("1000.00"), principal("a"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<LoanResponseDTO> second = intake.submit(request("1000.00"), principal("b"));
+        CompletableFuture<LoanResponseDTO> third = intake.submit(request("1000.00"), principal("c"));
+        assertEquals(2, intake.queued());
+
+        assertThrows(LoanIntakeRejectedException.class, () -> intake.submit(request("1000.00"), principal("d")));
+
+        release.countDown();
+        assertEquals("a", first.get(5, TimeUnit.SECONDS).getUsername());
+        assertEquals("b", second.get(5, TimeUnit.SECONDS).getUsername());
+        assertEquals("c", third.get(5, TimeUnit.SECONDS).getUsername());
+    }
+
+    @Test
+    void testStop_EveryAcceptedRequestIsCompleted() throws Exception {
+        intake = new LoanIntakeService(loanService, loanBulkService, true, 10_000, 50, Duration.ZERO);
+        when(loanBulkService.insert(any(), any())).thenAnswer(invocation -> {
+            List<LoanBulkItemDTO> items = invocation.getArgument(0);
+            LoanResponseDTO[] saved = items.stream()
+                    .map(item -> LoanResponseDTO.builder().username(item.getUsername()).build())
+                    .toArray(LoanResponseDTO[]::new);
+            return new LoanBulkService.Rows(saved, new String[items.size()]);
+        });
+        intake.start();
+
+        // Las solicitudes siguen llegando mientras se detiene el servicio
+        List<CompletableFuture<LoanResponseDTO>> accepted = new CopyOnWriteArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    try {
+                        accepted.add(intake.submit(request("1000.00"), principal("u" + i)));
+                    } catch (LoanIntakeRejectedException e) {
+                        return;
+                    }
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        Thread.sleep(20);
+        intake.stop();
+        for (Thread producer : producers) {
+            producer.join(5_000);
+        }
+
+        assertFalse(accepted.isEmpty());
+        assertTrue(accepted.stream().allMatch(CompletableFuture::isDone));
+        assertThrows(LoanIntakeRejectedException.class, () -> intake.submit(request("1000.00"), principal("tarde")));
+    }
+
+    @Test
+    void testInterruptedWriter_RejectsPendingAndStops() throws Exception {
+        // max-wait largo: el escritor queda esperando más solicitudes para completar el lote
+        intake = new LoanIntakeService(loanService, loanBulkService, true, 10, 10, Duration.ofSeconds(30));
+        intake.start();
+        CompletableFuture<LoanResponseDTO> collected = intake.submit(request("1000.00"), principal("alice"));
+        Thread writer = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("loan-intake-writer"))
+                .findFirst()
+                .orElseThrow();
+
+        writer.interrupt();
+        writer.join(5_000);
+
+        assertFalse(writer.isAlive());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> collected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LoanIntakeRejectedException.class, error.getCause());
+        assertThrows(LoanIntakeRejectedException.class, () -> intake.submit(request("1000.00"), principal("bob")));
+        verifyNoInteractions(loanBulkService);
+    }
+
+    @Test
+    void testWrite_FailureDoesNotExposeExceptionDetail() throws Exception {
+        intake = new LoanIntakeService(loanService, loanBulkService, true, 10, 10, Duration.ZERO);
+        when(loanBulkService.insert(any(), any())).thenThrow(
+                new IllegalStateException("could not execute statement [insert into loans (...)]"));
+        intake.start();
+
+        CompletableFuture<LoanResponseDTO> future = intake.submit(request("1000.00"), principal("alice"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals(LoanBulkService.SAVE_FAILED, error.getCause().getMessage());
+    }
+
+    private static AuthenticatedUser principal(String username) {
+        return new AuthenticatedUser((long) username.hashCode(), username, Set.of("USER"), true);
+    }
+
+    private static LoanRequestDTO request(String amount) {
+        return LoanRequestDTO.builder()
+                .amount(new BigDecimal(amount))
+                .term(12)
+                .purpose("Campaña")
+                .build();
+    }
+}
@@ -0,0 +1,179 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanReviewDTO;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.application.exception.LoanReviewConflictException;
+import com.kitsune.BanckLoad.domain.model.Loan;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin la transacción de cada test: cada revisión confirma la suya, como en producción
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({LoanService.class, LoanLookupService.class, LoanReviewConcurrencyTest.Config.class})
+class LoanReviewConcurrencyTest {
+
+    private static final int LOANS = 40;
+    private static final int REVIEWERS = 16;
+    private static final int ADMINS = 4;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ReviewedEvents reviewedEvents() {
+            return new ReviewedEvents();
+        }
+    }
+
+    static class ReviewedEvents {
+        final Queue<LoanReviewedEvent> events = new ConcurrentLinkedQueue<>();
+
+        @EventListener
+        void onLoanReviewed(LoanReviewedEvent event) {
+            events.add(event);
+        }
+    }
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewedEvents reviewedEvents;
+
+    private final List<Long> loanIds = new ArrayList<>();
+    private final List<AuthenticatedUser> admins = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User borrower = userRepository.save(user("borrower", Set.of("USER")));
+        for (int i = 0; i < ADMINS; i++) {
+            admins.add(AuthenticatedUser.from(userRepository.save(user("admin" + i, Set.of("ADMIN", "USER")))));
+        }
+        for (int i = 0; i < LOANS; i++) {
+            loanIds.add(loanRepository.save(Loan.builder()
+                    .amount(new BigDecimal("5000.00"))
+                    .term(12)
+                    .user(borrower)
+                    .status(LoanStatus.PENDING)
+                    .requestDate(LocalDateTime.now())
+                    .build()).getId());
+        }
+        reviewedEvents.events.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        loanRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentReviews_EachLoanReviewedExactlyOnce() throws Exception {
+        Map<Long, AtomicInteger> wins = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch ready = new CountDownLatch(REVIEWERS);
+        CountDownLatch go = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(REVIEWERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < REVIEWERS; t++) {
+            int reviewer = t;
+            futures.add(executor.submit(() -> {
+                AuthenticatedUser admin = admins.get(reviewer % ADMINS);
+                List<Long> order = new ArrayList<>(loanIds);
+                Collections.shuffle(order);
+                LoanReviewDTO review = LoanReviewDTO.builder()
+                        .action(reviewer % 2 == 0 ? "APPROVED" : "REJECTED")
+                        .rejectionReason(reviewer % 2 == 0 ? null : "Revisor " + reviewer)
+                        .build();
+                ready.countDown();
+                try {
+                    go.await();
+                    for (Long loanId : order) {
+                        try {
+                            loanService.reviewLoan(loanId, review, admin);
+                            wins.computeIfAbsent(loanId, id -> new AtomicInteger()).incrementAndGet();
+                        } catch (LoanReviewConflictException e) {
+                            conflicts.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            unexpected.add(e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        assertTrue(ready.await(10, TimeUnit.SECONDS));
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(unexpected.isEmpty(), () -> "Errores inesperados: " + unexpected);
+        assertEquals(LOANS, wins.size());
+        wins.forEach((loanId, count) -> assertEquals(1, count.get(), "Revisiones del préstamo " + loanId));
+        assertEquals(LOANS * (REVIEWERS - 1), conflicts.get());
+
+        // Un único evento por préstamo y el estado guardado es el de la revisión ganadora
+        assertEquals(LOANS, reviewedEvents.events.size());
+        for (LoanReviewedEvent event : reviewedEvents.events) {
+            Loan loan = loanRepository.findById(event.getLoan().getId()).orElseThrow();
+            assertNotEquals(LoanStatus.PENDING, loan.getStatus());
+            assertEquals(event.getLoan().getStatus(), loan.getStatus().name());
+            assertEquals(event.getLoan().getRejectionReason(), loan.getRejectionReason());
+        }
+    }
+
+    private static User user(String username, Set<String> roles) {
+        return User.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .password("password")
+                .fullName(username)
+                .roles(roles)
+                .enabled(true)
+                .build();
+    }
+}
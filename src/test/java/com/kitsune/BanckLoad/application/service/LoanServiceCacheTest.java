@@ -0,0 +1,132 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanPageDTO;
+import com.kitsune.BanckLoad.application.dto.LoanRequestDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.Loan;
+import com.kitsune.BanckLoad.domain.model.User;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class LoanServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import({LoanService.class, LoanLookupService.class})
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("loans", "userLoans", "adminLoans");
+        }
+    }
+
+    @MockitoBean
+    private LoanRepository loanRepository;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        when(loanRepository.findFirstPage(any())).thenReturn(List.of());
+        when(loanRepository.findFirstPageByUsername(any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void testUsernameAllDoesNotCollideWithAdminView() {
+        LoanPageDTO adminPage = loanService.getAllLoans(null, LoanPageDTO.DEFAULT_SIZE);
+        LoanPageDTO userPage = loanService.getUserLoans("all", null, LoanPageDTO.DEFAULT_SIZE);
+
+        assertSame(adminPage, cacheManager.getCache("adminLoans").get("all").get());
+        assertSame(userPage, cacheManager.getCache("userLoans").get("all").get());
+        verify(loanRepository, times(1)).findFirstPage(any());
+        verify(loanRepository, times(1)).findFirstPageByUsername(any(), any());
+    }
+
+    @Test
+    void testRequestLoan_EvictsOnlyAffectedKeys() {
+        User bob = User.builder().id(1L).username("bob").roles(Set.of("USER")).build();
+        when(userRepository.getReferenceById(1L)).thenReturn(bob);
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> {
+            Loan loan = invocation.getArgument(0);
+            loan.setId(10L);
+            return loan;
+        });
+
+        loanService.getAllLoans(null, LoanPageDTO.DEFAULT_SIZE);
+        loanService.getUserLoans("alice", null, LoanPageDTO.DEFAULT_SIZE);
+        loanService.getUserLoans("bob", null, LoanPageDTO.DEFAULT_SIZE);
+
+        loanService.requestLoan(LoanRequestDTO.builder()
+                .amount(new BigDecimal("1000.00"))
+                .term(12)
+                .purpose("Prueba")
+                .build(), AuthenticatedUser.from(bob));
+
+        assertNull(cacheManager.getCache("adminLoans").get("all"));
+        assertNull(cacheManager.getCache("userLoans").get("bob"));
+        assertNotNull(cacheManager.getCache("userLoans").get("alice"));
+    }
+
+    @Test
+    void testGetLoanById_PermissionCheckedOnEveryCacheHit() {
+        LoanResponseDTO loan = LoanResponseDTO.builder().id(7L).userId(1L).username("alice").build();
+        when(loanRepository.findRowById(7L)).thenReturn(Optional.of(loan));
+        AuthenticatedUser alice = new AuthenticatedUser(1L, "alice", Set.of("USER"), true);
+        AuthenticatedUser bob = new AuthenticatedUser(2L, "bob", Set.of("USER"), true);
+        AuthenticatedUser admin = new AuthenticatedUser(3L, "admin", Set.of("ADMIN", "USER"), true);
+
+        // La titular puebla la caché; después otro usuario no puede leerla desde ella
+        assertEquals(7L, loanService.getLoanById(7L, alice).getId());
+        RuntimeException denied = assertThrows(RuntimeException.class, () -> loanService.getLoanById(7L, bob));
+        assertEquals("No tiene permiso para ver este préstamo", denied.getMessage());
+        assertEquals(7L, loanService.getLoanById(7L, admin).getId());
+        assertEquals(7L, loanService.getLoanById(7L, alice).getId());
+
+        // Una sola consulta y ninguna del usuario que llama
+        verify(loanRepository, times(1)).findRowById(7L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testGetLoanById_DeniedCallerDoesNotPoisonCache() {
+        LoanResponseDTO loan = LoanResponseDTO.builder().id(8L).userId(1L).username("alice").build();
+        when(loanRepository.findRowById(8L)).thenReturn(Optional.of(loan));
+        AuthenticatedUser alice = new AuthenticatedUser(1L, "alice", Set.of("USER"), true);
+        AuthenticatedUser bob = new AuthenticatedUser(2L, "bob", Set.of("USER"), true);
+
+        assertThrows(RuntimeException.class, () -> loanService.getLoanById(8L, bob));
+
+        assertEquals(8L, loanService.getLoanById(8L, alice).getId());
+        verify(loanRepository, times(1)).findRowById(8L);
+    }
+}
@@ -1,23 +1,28 @@
 package com.kitsune.BanckLoad.application.service;
 
+import com.kitsune.BanckLoad.application.dto.LoanPageDTO;
 import com.kitsune.BanckLoad.application.dto.LoanRequestDTO;
 import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
 import com.kitsune.BanckLoad.application.dto.LoanReviewDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.application.exception.LoanReviewConflictException;
 import com.kitsune.BanckLoad.domain.model.Loan;
 import com.kitsune.BanckLoad.domain.model.User;
 import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
 import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import com.kitsune.BanckLoad.infrastructure.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +30,8 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,16 +44,18 @@ class LoanServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private SecurityContext securityContext;
+    private LoanLookupService loanLookupService;
 
     @Mock
-    private Authentication authentication;
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private LoanService loanService;
 
     private User testUser;
     private User adminUser;
+    private AuthenticatedUser testPrincipal;
+    private AuthenticatedUser adminPrincipal;
 
     @BeforeEach
     void setUp() {
@@ -70,7 +79,8 @@ class LoanServiceTest {
                 .enabled(true)
                 .build();
 
-        SecurityContextHolder.setContext(securityContext);
+        testPrincipal = AuthenticatedUser.from(testUser);
+        adminPrincipal = AuthenticatedUser.from(adminUser);
     }
 
     @Test
@@ -81,9 +91,7 @@ class LoanServiceTest {
                 .term(12)
                 .build();
 
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("testuser");
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
 
         Loan savedLoan = Loan.builder()
                 .id(1L)
@@ -96,7 +104,7 @@ class LoanServiceTest {
         when(loanRepository.save(any(Loan.class))).thenReturn(savedLoan);
 
         // Act
-        LoanResponseDTO response = loanService.requestLoan(request);
+        LoanResponseDTO response = loanService.requestLoan(request, testPrincipal);
 
         // Assert
         assertNotNull(response);
@@ -104,24 +112,39 @@ class LoanServiceTest {
         assertEquals(new BigDecimal("5000.00"), response.getAmount());
         assertEquals(12, response.getTerm());
         assertEquals("PENDING", response.getStatus());
+        assertEquals("testuser", response.getUsername());
         verify(loanRepository, times(1)).save(any(Loan.class));
+        verify(userRepository, never()).findByUsername(any());
+        verify(eventPublisher).publishEvent(new LoanCreatedEvent(response));
     }
 
     @Test
-    void testRequestLoan_UserNotFound() {
+    void testRequestLoan_AdminRejected() {
         // Arrange
         LoanRequestDTO request = LoanRequestDTO.builder()
                 .amount(new BigDecimal("5000.00"))
                 .term(12)
                 .build();
 
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("nonexistent");
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        // Act & Assert
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> loanService.requestLoan(request, adminPrincipal));
+        assertEquals("Los administradores no pueden solicitar préstamos", ex.getMessage());
+        verifyNoInteractions(userRepository, loanRepository);
+    }
+
+    @Test
+    void testGetLoanById_ChecksOwnershipWithoutUserLookup() {
+        // Arrange
+        LoanResponseDTO loan = LoanResponseDTO.builder().id(5L).userId(1L).username("testuser").build();
+        AuthenticatedUser other = new AuthenticatedUser(3L, "other", Set.of("USER"), true);
+        when(loanLookupService.findLoan(5L)).thenReturn(loan);
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () -> loanService.requestLoan(request));
-        verify(loanRepository, never()).save(any(Loan.class));
+        assertSame(loan, loanService.getLoanById(5L, testPrincipal));
+        assertSame(loan, loanService.getLoanById(5L, adminPrincipal));
+        assertThrows(RuntimeException.class, () -> loanService.getLoanById(5L, other));
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -143,17 +166,20 @@ class LoanServiceTest {
                 .status(Loan.LoanStatus.APPROVED)
                 .build();
 
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(loanRepository.findByUser(testUser)).thenReturn(Arrays.asList(loan1, loan2));
+        when(loanRepository.findFirstPageByUsername(eq("testuser"), any(Limit.class)))
+                .thenReturn(Arrays.asList(LoanResponseDTO.fromEntity(loan1), LoanResponseDTO.fromEntity(loan2)));
 
         // Act
-        List<LoanResponseDTO> loans = loanService.getUserLoans("testuser");
+        LoanPageDTO page = loanService.getUserLoans("testuser", null, LoanPageDTO.DEFAULT_SIZE);
 
         // Assert
+        List<LoanResponseDTO> loans = page.getItems();
         assertNotNull(loans);
         assertEquals(2, loans.size());
         assertEquals("PENDING", loans.get(0).getStatus());
         assertEquals("APPROVED", loans.get(1).getStatus());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
     }
 
     @Test
@@ -171,20 +197,24 @@ class LoanServiceTest {
                 .action("APPROVED")
                 .build();
 
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("admin");
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(adminUser));
-        when(loanRepository.findById(1L)).thenReturn(Optional.of(pendingLoan));
-        when(loanRepository.save(any(Loan.class))).thenReturn(pendingLoan);
+        when(userRepository.getReferenceById(2L)).thenReturn(adminUser);
+        when(loanRepository.reviewPending(eq(List.of(1L)), eq(Loan.LoanStatus.APPROVED), isNull(),
+                any(LocalDateTime.class), eq(adminUser), eq(Loan.LoanStatus.PENDING))).thenAnswer(invocation -> {
+            pendingLoan.setStatus(Loan.LoanStatus.APPROVED);
+            pendingLoan.setReviewedBy(adminUser);
+            return 1;
+        });
+        when(loanRepository.findRowById(1L)).thenAnswer(invocation -> Optional.of(LoanResponseDTO.fromEntity(pendingLoan)));
 
         // Act
-        LoanResponseDTO response = loanService.reviewLoan(1L, reviewDTO);
+        LoanResponseDTO response = loanService.reviewLoan(1L, reviewDTO, adminPrincipal);
 
         // Assert
         assertNotNull(response);
         assertEquals("APPROVED", response.getStatus());
         assertNull(response.getRejectionReason());
-        verify(loanRepository, times(1)).save(any(Loan.class));
+        verify(loanRepository, never()).save(any(Loan.class));
+        verify(eventPublisher).publishEvent(new LoanReviewedEvent(response, Loan.LoanStatus.PENDING));
     }
 
     @Test
@@ -203,20 +233,23 @@ class LoanServiceTest {
                 .rejectionReason("Monto muy alto")
                 .build();
 
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("admin");
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(adminUser));
-        when(loanRepository.findById(1L)).thenReturn(Optional.of(pendingLoan));
-        when(loanRepository.save(any(Loan.class))).thenReturn(pendingLoan);
+        when(userRepository.getReferenceById(2L)).thenReturn(adminUser);
+        when(loanRepository.reviewPending(eq(List.of(1L)), eq(Loan.LoanStatus.REJECTED), eq("Monto muy alto"),
+                any(LocalDateTime.class), eq(adminUser), eq(Loan.LoanStatus.PENDING))).thenAnswer(invocation -> {
+            pendingLoan.setStatus(Loan.LoanStatus.REJECTED);
+            pendingLoan.setRejectionReason("Monto muy alto");
+            return 1;
+        });
+        when(loanRepository.findRowById(1L)).thenAnswer(invocation -> Optional.of(LoanResponseDTO.fromEntity(pendingLoan)));
 
         // Act
-        LoanResponseDTO response = loanService.reviewLoan(1L, reviewDTO);
+        LoanResponseDTO response = loanService.reviewLoan(1L, reviewDTO, adminPrincipal);
 
         // Assert
         assertNotNull(response);
         assertEquals("REJECTED", response.getStatus());
         assertEquals("Monto muy alto", response.getRejectionReason());
-        verify(loanRepository, times(1)).save(any(Loan.class));
+        verify(loanRepository, never()).save(any(Loan.class));
     }
 
     @Test
@@ -234,14 +267,13 @@ class LoanServiceTest {
                 .action("APPROVED")
                 .build();
 
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("admin");
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(adminUser));
-        when(loanRepository.findById(1L)).thenReturn(Optional.of(approvedLoan));
+        when(loanRepository.reviewPending(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(loanRepository.existsById(approvedLoan.getId())).thenReturn(true);
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () -> loanService.reviewLoan(1L, reviewDTO));
+        assertThrows(LoanReviewConflictException.class, () -> loanService.reviewLoan(1L, reviewDTO, adminPrincipal));
         verify(loanRepository, never()).save(any(Loan.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -251,13 +283,12 @@ class LoanServiceTest {
                 .action("APPROVED")
                 .build();
 
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("admin");
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(adminUser));
-        when(loanRepository.findById(999L)).thenReturn(Optional.empty());
+        when(loanRepository.reviewPending(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(loanRepository.existsById(999L)).thenReturn(false);
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () -> loanService.reviewLoan(999L, reviewDTO));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> loanService.reviewLoan(999L, reviewDTO, adminPrincipal));
+        assertEquals("Préstamo no encontrado", ex.getMessage());
         verify(loanRepository, never()).save(any(Loan.class));
     }
 
@@ -272,16 +303,48 @@ class LoanServiceTest {
                 .status(Loan.LoanStatus.PENDING)
                 .build();
 
-        when(loanRepository.findByStatus(Loan.LoanStatus.PENDING))
-                .thenReturn(Arrays.asList(loan1));
+        when(loanRepository.findFirstPageByStatus(eq(Loan.LoanStatus.PENDING), any(Limit.class)))
+                .thenReturn(Arrays.asList(LoanResponseDTO.fromEntity(loan1)));
 
         // Act
-        List<LoanResponseDTO> loans = loanService.getPendingLoans();
+        LoanPageDTO page = loanService.getPendingLoans(null, LoanPageDTO.DEFAULT_SIZE);
 
         // Assert
+        List<LoanResponseDTO> loans = page.getItems();
         assertNotNull(loans);
         assertEquals(1, loans.size());
         assertEquals("PENDING", loans.get(0).getStatus());
     }
+
+    @Test
+    void testGetAllLoans_NextPageUsesCursor() {
+        // Arrange: se piden 2 filas y el repositorio devuelve 3 (limit + 1)
+        LocalDateTime now = LocalDateTime.now();
+        List<LoanResponseDTO> rows = Arrays.asList(
+                LoanResponseDTO.builder().id(3L).status("PENDING").requestDate(now).build(),
+                LoanResponseDTO.builder().id(2L).status("PENDING").requestDate(now.minusDays(1)).build(),
+                LoanResponseDTO.builder().id(1L).status("PENDING").requestDate(now.minusDays(2)).build());
+
+        when(loanRepository.findFirstPage(Limit.of(3))).thenReturn(rows);
+        when(loanRepository.findPageAfter(now.minusDays(1), 2L, Limit.of(3)))
+                .thenReturn(List.of(rows.get(2)));
+
+        // Act
+        LoanPageDTO first = loanService.getAllLoans(null, 2);
+        LoanPageDTO second = loanService.getAllLoans(first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(2, first.getSize());
+        assertTrue(first.isHasMore());
+        assertEquals(1, second.getSize());
+        assertEquals(1L, second.getItems().get(0).getId());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    void testGetAllLoans_InvalidCursor() {
+        assertThrows(RuntimeException.class, () -> loanService.getAllLoans("no-es-un-cursor", 20));
+        verifyNoInteractions(loanRepository);
+    }
 }
 
@@ -0,0 +1,107 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveLoanServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private ReactiveLoanService reactiveLoanService;
+
+    @BeforeEach
+    void setUp() {
+        reactiveLoanService = new ReactiveLoanService(loanRepository, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactiveLoanService.dispose();
+    }
+
+    @Test
+    void testGetAllLoansReactive_PagesOnDemandOffTheCallerThread() {
+        int pageSize = ReactiveLoanService.PAGE_SIZE;
+        List<String> threads = new CopyOnWriteArrayList<>();
+        Set<LoanStatus> pending = EnumSet.of(LoanStatus.PENDING);
+        when(loanRepository.findRowsByStatusAfterId(eq(pending), eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return rows(1, pageSize);
+        });
+        when(loanRepository.findRowsByStatusAfterId(eq(pending), eq((long) pageSize), any(Limit.class)))
+                .thenReturn(rows(pageSize + 1, 3));
+
+        StepVerifier.create(reactiveLoanService.getAllLoansReactive(pending), 1)
+                .assertNext(loan -> assertEquals(1L, loan.getId()))
+                // Con una sola fila pedida no se consulta la segunda página
+                .then(() -> verify(loanRepository, never())
+                        .findRowsByStatusAfterId(any(), eq((long) pageSize), any(Limit.class)))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(pageSize + 2)
+                .verifyComplete();
+
+        verify(loanRepository, times(2)).findRowsByStatusAfterId(eq(pending), any(), any(Limit.class));
+        assertTrue(threads.get(0).startsWith("reactive-loans"), "Hilo: " + threads.get(0));
+    }
+
+    @Test
+    void testGetUserLoansReactive_EmptyFilterMeansAllStatuses() {
+        when(loanRepository.findRowsByUsernameAndStatusAfterId(eq("alice"), eq(EnumSet.allOf(LoanStatus.class)),
+                eq(0L), any(Limit.class))).thenReturn(rows(1, 2));
+
+        StepVerifier.create(reactiveLoanService.getUserLoansReactive("alice", Set.of()))
+                .expectNextCount(2)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testGetLoanByIdReactive_OnlyOwnerOrAdmin() {
+        LoanResponseDTO loan = LoanResponseDTO.builder().id(7L).username("alice").build();
+        when(loanRepository.findRowById(7L)).thenReturn(Optional.of(loan));
+        when(loanRepository.findRowById(8L)).thenReturn(Optional.empty());
+
+        StepVerifier.create(reactiveLoanService.getLoanByIdReactive(7L, "alice", false))
+                .expectNext(loan)
+                .verifyComplete();
+        StepVerifier.create(reactiveLoanService.getLoanByIdReactive(7L, "admin", true))
+                .expectNext(loan)
+                .verifyComplete();
+        StepVerifier.create(reactiveLoanService.getLoanByIdReactive(7L, "bob", false))
+                .expectErrorMessage("No tiene permiso para ver este préstamo")
+                .verify();
+        StepVerifier.create(reactiveLoanService.getLoanByIdReactive(8L, "alice", false))
+                .expectErrorMessage("Préstamo no encontrado")
+                .verify();
+    }
+
+    private static List<LoanResponseDTO> rows(long firstId, int count) {
+        return LongStream.range(firstId, firstId + count)
+                .mapToObj(id -> LoanResponseDTO.builder().id(id).status("PENDING").build())
+                .toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.kitsune.BanckLoad.application.service;
+
+import com.kitsune.BanckLoad.application.dto.StatisticsBucketDTO;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.statistics.LoanStatisticsCounters;
+import com.kitsune.BanckLoad.infrastructure.statistics.LoanStatisticsRollups;
+import com.kitsune.BanckLoad.infrastructure.statistics.RollupBucket;
+import com.kitsune.BanckLoad.infrastructure.statistics.RollupGranularity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsServiceTest {
+
+    @Mock
+    private LoanStatisticsCounters counters;
+
+    @Mock
+    private LoanStatisticsRollups rollups;
+
+    @InjectMocks
+    private StatisticsService statisticsService;
+
+    @Test
+    void testGetGlobalStatistics_FromCounters() {
+        when(counters.getGlobalCounts()).thenReturn(Map.of(
+                LoanStatus.PENDING, 2L, LoanStatus.APPROVED, 6L, LoanStatus.REJECTED, 2L));
+
+        Map<String, Object> stats = statisticsService.getGlobalStatistics();
+
+        assertEquals(10L, stats.get("totalLoans"));
+        assertEquals(6L, stats.get("approvedLoans"));
+        assertEquals(60.0, stats.get("approvalRate"));
+        assertEquals(20.0, stats.get("rejectionRate"));
+    }
+
+    @Test
+    void testGetRollups_ComputesAveragesAndRates() {
+        LocalDate day = LocalDate.of(2026, 3, 2);
+        when(rollups.getRange(RollupGranularity.DAY, day, day)).thenReturn(List.of(
+                new RollupBucket(day, day.plusDays(1), 4, 1_000_050, 60, 3, 1)));
+
+        List<StatisticsBucketDTO> buckets = statisticsService.getRollups(RollupGranularity.DAY, day, day);
+
+        assertEquals(1, buckets.size());
+        StatisticsBucketDTO bucket = buckets.get(0);
+        assertEquals(new BigDecimal("10000.50"), bucket.getTotalAmount());
+        assertEquals(new BigDecimal("2500.13"), bucket.getAverageAmount());
+        assertEquals(15.0, bucket.getAverageTerm());
+        assertEquals(75.0, bucket.getApprovalRate());
+        assertEquals(25.0, bucket.getRejectionRate());
+    }
+
+    @Test
+    void testGetRollups_EmptyBucketHasZeroAverages() {
+        LocalDate month = LocalDate.of(2026, 2, 1);
+        when(rollups.getRange(RollupGranularity.MONTH, month, month)).thenReturn(List.of(
+                new RollupBucket(month, month.plusMonths(1), 0, 0, 0, 0, 0)));
+
+        StatisticsBucketDTO bucket = statisticsService.getRollups(RollupGranularity.MONTH, month, month).get(0);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(bucket.getAverageAmount()));
+        assertEquals(0.0, bucket.getApprovalRate());
+    }
+
+    @Test
+    void testGetRollups_RangeTooLarge() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                statisticsService.getRollups(RollupGranularity.DAY, LocalDate.of(2024, 1, 1), LocalDate.of(2026, 1, 1)));
+
+        assertTrue(exception.getMessage().contains("máximo"));
+        verify(rollups, never()).getRange(any(), any(), any());
+    }
+
+    @Test
+    void testRollupGranularity_BucketStart() {
+        LocalDate thursday = LocalDate.of(2026, 10, 15);
+
+        assertEquals(LocalDate.of(2026, 10, 12), RollupGranularity.WEEK.bucketStart(thursday));
+        assertEquals(LocalDate.of(2026, 10, 1), RollupGranularity.MONTH.bucketStart(thursday));
+        assertEquals(LocalDate.of(2026, 11, 1), RollupGranularity.MONTH.next(LocalDate.of(2026, 10, 1)));
+    }
+}
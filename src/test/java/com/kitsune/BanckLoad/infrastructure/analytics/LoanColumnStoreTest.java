@@ -0,0 +1,224 @@
+package com.kitsune.BanckLoad.infrastructure.analytics;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanFacts;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanColumnStoreTest {
+
+    // Suficientes filas para repartir el recorrido en varios tramos paralelos
+    private static final int ROWS = 100_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private LoanColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new LoanColumnStore(loanRepository, true, 4, 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void testLoad_KeysetBatchesAndAggregatesInParallel() {
+        List<LoanFacts> rows = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            rows.add(facts(i, (i % 100) + 1, 12 * (1 + i % 3), LoanStatus.values()[i % 3], 1 + i % 10,
+                    BASE.plusHours(i)));
+        }
+        when(loanRepository.findFactsAfterId(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int limit = invocation.<Limit>getArgument(1).max();
+            return rows.subList((int) afterId, Math.min(ROWS, (int) afterId + limit));
+        });
+
+        store.load();
+
+        assertTrue(store.isLoaded());
+        assertEquals(ROWS, store.size());
+
+        LoanAggregation all = store.aggregate(LoanAnalyticsFilter.builder().build(), AnalyticsGroupBy.STATUS);
+        assertEquals(ROWS, all.getCount());
+        // Importes de 1 a 100 repetidos: suma 5050 por cada 100 filas
+        assertEquals(5050L * 100 * (ROWS / 100), all.getSumCents());
+        assertEquals(100, all.getMinCents());
+        assertEquals(10_000, all.getMaxCents());
+        // Percentiles exactos 5000 y 9900, con el error relativo del histograma
+        assertEquals(5_000, all.getPercentileCents().get(50), 5_000 * AmountSketch.RELATIVE_ACCURACY);
+        assertEquals(9_900, all.getPercentileCents().get(99), 9_900 * AmountSketch.RELATIVE_ACCURACY);
+        assertEquals(3, all.getGroups().size());
+        assertEquals(ROWS, all.getGroups().stream().mapToLong(LoanAggregation.Group::getCount).sum());
+
+        LoanAggregation filtered = store.aggregate(LoanAnalyticsFilter.builder()
+                .statuses(Set.of(LoanStatus.APPROVED))
+                .userId(2L)
+                .build(), AnalyticsGroupBy.NONE);
+        long expected = rows.stream()
+                .filter(r -> r.getStatus() == LoanStatus.APPROVED && r.getUserId() == 2L)
+                .count();
+        assertEquals(expected, filtered.getCount());
+        assertTrue(filtered.getGroups().isEmpty());
+    }
+
+    @Test
+    void testEvents_AppendAndUpdateRows() {
+        LoanResponseDTO created = loan(7L, "PENDING", null);
+        store.onLoanCreated(new LoanCreatedEvent(created));
+        store.onLoanReviewed(new LoanReviewedEvent(loan(7L, "APPROVED", BASE.plusDays(1)), LoanStatus.PENDING));
+
+        LoanAggregation approved = store.aggregate(LoanAnalyticsFilter.builder()
+                .statuses(Set.of(LoanStatus.APPROVED))
+                .build(), AnalyticsGroupBy.TERM);
+
+        assertEquals(1, store.size());
+        assertEquals(1, approved.getCount());
+        assertEquals(250_050, approved.getSumCents());
+        assertEquals(24, approved.getGroups().get(0).getKey());
+    }
+
+    @Test
+    void testAggregate_RequestDateRangeAndAmountBounds() {
+        store.onLoanCreated(new LoanCreatedEvent(loan(1L, "PENDING", null)));
+        LoanResponseDTO later = loan(2L, "PENDING", null);
+        later.setRequestDate(BASE.plusDays(10));
+        later.setAmount(new BigDecimal("100.00"));
+        store.onLoanCreated(new LoanCreatedEvent(later));
+
+        LoanAggregation firstWeek = store.aggregate(LoanAnalyticsFilter.builder()
+                .from(BASE)
+                .to(BASE.plusDays(7))
+                .build(), AnalyticsGroupBy.NONE);
+        LoanAggregation small = store.aggregate(LoanAnalyticsFilter.builder()
+                .maxAmount(new BigDecimal("500"))
+                .build(), AnalyticsGroupBy.NONE);
+        LoanAggregation none = store.aggregate(LoanAnalyticsFilter.builder()
+                .term(36)
+                .build(), AnalyticsGroupBy.NONE);
+
+        assertEquals(1, firstWeek.getCount());
+        assertEquals(250_050, firstWeek.getSumCents());
+        assertEquals(1, small.getCount());
+        assertEquals(10_000, small.getSumCents());
+        assertEquals(0, none.getCount());
+        assertTrue(none.getPercentileCents().isEmpty());
+    }
+
+    @Test
+    void testAmountSketch_MergedPercentilesWithinRelativeError() {
+        AmountSketch low = new AmountSketch();
+        AmountSketch high = new AmountSketch();
+        for (long cents = 1; cents <= 1_000_000; cents++) {
+            (cents <= 500_000 ? low : high).add(cents);
+        }
+        low.merge(high);
+
+        assertEquals(1_000_000, low.count());
+        for (int percentile : new int[]{1, 50, 90, 99, 100}) {
+            long exact = percentile * 10_000L;
+            assertEquals(exact, low.percentile(percentile), exact * AmountSketch.RELATIVE_ACCURACY,
+                    "p" + percentile);
+        }
+        assertEquals(1, AmountSketch.value(AmountSketch.bucket(1)));
+        assertEquals(0, new AmountSketch().percentile(50));
+    }
+
+    @Test
+    void testLongIntMap_GrowsAndOverwrites() {
+        LongIntMap map = new LongIntMap(4);
+        for (int i = 1; i <= 10_000; i++) {
+            map.put(i * 31L, i);
+        }
+        map.put(31L, -5);
+
+        assertEquals(10_000, map.size());
+        assertEquals(-5, map.get(31L));
+        assertEquals(9_999, map.get(9_999 * 31L));
+        assertEquals(LongIntMap.MISSING, map.get(32L));
+    }
+
+    private static LoanResponseDTO loan(Long id, String status, LocalDateTime reviewedAt) {
+        return LoanResponseDTO.builder()
+                .id(id)
+                .amount(new BigDecimal("2500.50"))
+                .term(24)
+                .status(status)
+                .userId(3L)
+                .username("alice")
+                .requestDate(BASE)
+                .reviewedAt(reviewedAt)
+                .build();
+    }
+
+    private static LoanFacts facts(long id, long amount, int term, LoanStatus status, long userId,
+                                   LocalDateTime requestDate) {
+        return new LoanFacts() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return BigDecimal.valueOf(amount);
+            }
+
+            @Override
+            public Integer getTerm() {
+                return term;
+            }
+
+            @Override
+            public LoanStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public LocalDateTime getRequestDate() {
+                return requestDate;
+            }
+
+            @Override
+            public LocalDateTime getReviewedAt() {
+                return null;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return requestDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import com.kitsune.BanckLoad.application.dto.LoanPageDTO;
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheValueSerializerTest {
+
+    private final CacheValueSerializer serializer = new CacheValueSerializer("test");
+
+    @Test
+    void testLoanPage_RoundTrip() {
+        LoanPageDTO page = LoanPageDTO.of(loans(3), 2);
+
+        Object result = serializer.deserialize(serializer.serialize(page));
+
+        assertEquals(page, result);
+    }
+
+    @Test
+    void testStatisticsMap_RoundTrip() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalLoans", 10L);
+        stats.put("approvalRate", 42.5);
+        stats.put("label", null);
+
+        assertEquals(stats, serializer.deserialize(serializer.serialize(stats)));
+    }
+
+    @Test
+    void testUser_RoundTrip() {
+        User user = User.builder()
+                .id(7L)
+                .username("usuario")
+                .email("usuario@test.com")
+                .password("$2a$10$hash")
+                .fullName("Usuario de Prueba")
+                .roles(Set.of("USER"))
+                .enabled(true)
+                .createdAt(LocalDateTime.of(2026, 1, 9, 15, 41, 4, 10_158_000))
+                .build();
+
+        assertEquals(user, serializer.deserialize(serializer.serialize(user)));
+    }
+
+    @Test
+    void testLargeList_IsCompressed() {
+        List<LoanResponseDTO> loans = loans(500);
+
+        byte[] compact = serializer.serialize(loans);
+
+        assertEquals(CacheValueSerializer.MAGIC, compact[0]);
+        assertTrue(compact.length < serializer.getUncompressedBytes() / 2);
+        assertEquals(loans, serializer.deserialize(compact));
+    }
+
+    @Test
+    void testUnknownFormat_TreatedAsCacheMiss() throws Exception {
+        assertNull(serializer.deserialize(jdkSerialize(new ArrayList<>(List.of("legacy")))));
+        assertEquals(1, serializer.getRejectedPayloads());
+    }
+
+    @Test
+    void testUnsupportedType_Rejected() {
+        // Serializable, pero sin etiqueta propia: no se recurre a serialización JDK
+        SerializationException e = assertThrows(SerializationException.class,
+                () -> serializer.serialize(List.of(new StringBuilder("x"))));
+        assertTrue(e.getMessage().contains("StringBuilder"), e.getMessage());
+
+        byte[] unknownTag = {CacheValueSerializer.MAGIC, CacheValueSerializer.FORMAT_VERSION, 0, 127};
+        assertThrows(SerializationException.class, () -> serializer.deserialize(unknownTag));
+    }
+
+    @Test
+    void testPreviousFormatVersion_TreatedAsMiss() {
+        // Valor de la versión 1 en serialización JDK, escrito por un nodo anterior durante el despliegue
+        byte[] legacy = {CacheValueSerializer.MAGIC, 1, 0, 127};
+
+        assertNull(serializer.deserialize(legacy));
+        assertEquals(1, serializer.getRejectedPayloads());
+    }
+
+    private static List<LoanResponseDTO> loans(int count) {
+        List<LoanResponseDTO> loans = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2026, 10, 17, 12, 0);
+        for (int i = 0; i < count; i++) {
+            loans.add(LoanResponseDTO.builder()
+                    .id((long) i)
+                    .amount(new BigDecimal("5000.00"))
+                    .term(12)
+                    .purpose("Préstamo para mejoras en el hogar")
+                    .status("PENDING")
+                    .statusDisplayName("Pendiente")
+                    .requestDate(now.minusMinutes(i))
+                    .userId(2L)
+                    .username("usuario")
+                    .build());
+        }
+        return loans;
+    }
+
+    private static byte[] jdkSerialize(Object value) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(value);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TwoLevelCacheMeterBinderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CacheValueSerializer serializer = new CacheValueSerializer("loans");
+
+    private ConcurrentMapCache remote;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("loans");
+        com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> local = Caffeine.newBuilder()
+                .maximumSize(100)
+                .build();
+        cache = new TwoLevelCache("loans", local, remote, mock(CacheInvalidationPublisher.class));
+        new TwoLevelCacheMeterBinderProvider(Map.of("loans", serializer))
+                .getMeterBinder(cache, Tags.of("cache.manager", "cacheManager"))
+                .bindTo(registry);
+    }
+
+    @Test
+    void testBindTo_PublishesHitsMissesAndPutsPerRegion() {
+        remote.put(1L, "loan-1");
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+        cache.put(3L, "loan-3");
+        cache.evict(3L);
+
+        assertEquals(2.0, registry.get("cache.gets").tags("cache", "loans", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "loans", "result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.level.hits").tags("cache", "loans", "level", "local").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.level.hits").tags("cache", "loans", "level", "remote").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.puts").tag("cache", "loans").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.evictions").tag("cache", "loans").functionCounter().count());
+        assertNull(registry.find("cache.size").gauge());
+    }
+
+    @Test
+    void testBindTo_PublishesPayloadSizesFromRegionSerializer() {
+        byte[] bytes = serializer.serialize("x".repeat(2_000));
+        serializer.deserialize(bytes);
+
+        assertEquals(bytes.length, registry.get("cache.payload.serialized.bytes").tag("cache", "loans")
+                .functionCounter().count());
+        assertTrue(registry.get("cache.payload.uncompressed.bytes").tag("cache", "loans")
+                .functionCounter().count() > bytes.length);
+        assertEquals(1.0, registry.get("cache.payload.encode").tag("cache", "loans").functionTimer().count());
+        assertEquals(1.0, registry.get("cache.payload.decode").tag("cache", "loans").functionTimer().count());
+        assertTrue(registry.get("cache.payload.encode").functionTimer().totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+}
@@ -0,0 +1,118 @@
+package com.kitsune.BanckLoad.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    private ConcurrentMapCache remote;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("loans");
+        com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> local = Caffeine.newBuilder()
+                .maximumSize(100)
+                .build();
+        cache = new TwoLevelCache("loans", local, remote, publisher);
+    }
+
+    @Test
+    void testGet_ServedFromL1AfterFirstRemoteHit() {
+        remote.put(1L, "loan-1");
+
+        assertEquals("loan-1", cache.get(1L).get());
+        remote.evict(1L);
+
+        // La segunda lectura ya no pasa por Redis
+        assertEquals("loan-1", cache.get(1L).get());
+    }
+
+    @Test
+    void testEvict_RemovesBothLevelsAndPublishes() {
+        cache.put(1L, "loan-1");
+        verify(publisher).publishEvict("loans", "1");
+
+        cache.evict(1L);
+
+        assertNull(cache.get(1L));
+        assertNull(remote.get(1L));
+        verify(publisher, times(2)).publishEvict("loans", "1");
+    }
+
+    @Test
+    void testEvictLocal_FallsBackToRemote() {
+        remote.put(1L, "loan-1");
+        cache.get(1L);
+
+        // Otro nodo actualizó Redis e invalidó nuestra L1
+        remote.put(1L, "loan-1-reviewed");
+        cache.evictLocal("1");
+
+        assertEquals("loan-1-reviewed", cache.get(1L).get());
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void testClear_PublishesClear() {
+        cache.put("pending", "page");
+        cache.clear();
+
+        assertNull(cache.get("pending"));
+        verify(publisher).publishClear("loans");
+    }
+
+    @Test
+    void testStats_CountHitsPerLevelAndMisses() {
+        remote.put(1L, "loan-1");
+
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+        assertEquals("loan-3", cache.get(3L, () -> "loan-3"));
+        assertEquals("loan-3", cache.get(3L, () -> "otro"));
+
+        assertEquals(2, cache.getLocalHits());
+        assertEquals(1, cache.getRemoteHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getPuts());
+        assertEquals(2, cache.getLocalSize());
+    }
+
+    @Test
+    void testStats_LoaderSkippedOnRemoteHitIsNotAMiss() {
+        remote.put(1L, "loan-1");
+
+        assertEquals("loan-1", cache.get(1L, () -> "recalculado"));
+        cache.evictIfPresent(1L);
+        cache.evictIfPresent(1L);
+
+        assertEquals(1, cache.getRemoteHits());
+        assertEquals(0, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void testInvalidationMessage_RoundTrip() {
+        CacheInvalidationMessage message = CacheInvalidationMessage.decode(
+                new CacheInvalidationMessage("node-1", "statistics", "user:a|b").encode());
+
+        assertEquals("node-1", message.getOrigin());
+        assertEquals("statistics", message.getCacheName());
+        assertEquals("user:a|b", message.getKey());
+        assertTrue(CacheInvalidationMessage.decode("node-1|adminLoans|").isClear());
+    }
+}
@@ -0,0 +1,43 @@
+package com.kitsune.BanckLoad.infrastructure.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncConfigTest {
+
+    private final TaskDecorator decorator = new AsyncConfig().securityContextTaskDecorator();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testTaskDecorator_PropagatesSecurityContextToVirtualThread() throws Exception {
+        Authentication admin = new UsernamePasswordAuthenticationToken("admin", null, List.of());
+        SecurityContextHolder.setContext(new SecurityContextImpl(admin));
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        AtomicReference<Authentication> afterTask = new AtomicReference<>();
+
+        Runnable task = decorator.decorate(() -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+        Thread thread = Thread.ofVirtual().start(() -> {
+            task.run();
+            afterTask.set(SecurityContextHolder.getContext().getAuthentication());
+        });
+        thread.join();
+
+        assertSame(admin, seen.get());
+        // El hilo que ejecuta la tarea no se queda con el contexto de la petición
+        assertNull(afterTask.get());
+    }
+}
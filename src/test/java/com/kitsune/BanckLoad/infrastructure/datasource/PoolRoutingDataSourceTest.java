@@ -0,0 +1,136 @@
+package com.kitsune.BanckLoad.infrastructure.datasource;
+
+import com.kitsune.BanckLoad.infrastructure.config.DataSourceConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private HikariDataSource customer;
+    private HikariDataSource reporting;
+    private Reports reports;
+
+    class Reports {
+
+        private final DataSource dataSource;
+
+        Reports(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @ReportingPool
+        public String report() throws SQLException {
+            return poolOf(dataSource);
+        }
+
+        @ReportingPool
+        public String failingReport() {
+            throw new IllegalStateException("fallo");
+        }
+
+        public String customer() throws SQLException {
+            return poolOf(dataSource);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        customer = pool("customer", 2);
+        reporting = pool("reporting", 1);
+        DataSource routing = new PoolRoutingDataSource(customer, reporting);
+
+        ProxyFactory factory = new ProxyFactory(new Reports(routing));
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(DataSourceConfig.reportingPoolAdvisor());
+        reports = (Reports) factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customer.close();
+        reporting.close();
+    }
+
+    @Test
+    void annotatedMethodsUseReportingPool() throws SQLException {
+        assertEquals("reporting", reports.report());
+        assertEquals("customer", reports.customer());
+        assertEquals(ConnectionPool.CUSTOMER, PoolRoutingDataSource.current());
+    }
+
+    @Test
+    void previousPoolIsRestoredAfterFailure() {
+        assertThrows(IllegalStateException.class, reports::failingReport);
+        assertEquals(ConnectionPool.CUSTOMER, PoolRoutingDataSource.current());
+    }
+
+    @Test
+    void nestedSelectionRestoresOuterPool() {
+        ConnectionPool outer = PoolRoutingDataSource.use(ConnectionPool.REPORTING);
+        try {
+            ConnectionPool inner = PoolRoutingDataSource.use(ConnectionPool.CUSTOMER);
+            PoolRoutingDataSource.restore(inner);
+            assertEquals(ConnectionPool.REPORTING, PoolRoutingDataSource.current());
+        } finally {
+            PoolRoutingDataSource.restore(outer);
+        }
+        assertEquals(ConnectionPool.CUSTOMER, PoolRoutingDataSource.current());
+    }
+
+    @Test
+    void reportingPoolExhaustionDoesNotBlockCustomerPool() throws SQLException {
+        // El único hueco del pool de informes está ocupado: las peticiones de clientes siguen obteniendo conexión
+        try (Connection held = reporting.getConnection()) {
+            assertEquals("customer", reports.customer());
+            assertEquals(1, active(reporting));
+        }
+    }
+
+    @Test
+    void metricsAreTaggedPerPool() throws SQLException {
+        reports.report();
+        reports.customer();
+
+        for (String pool : new String[]{"customer", "reporting"}) {
+            assertNotNull(registry.find("hikaricp.connections.active").tag("pool", pool).gauge());
+            assertNotNull(registry.find("hikaricp.connections.idle").tag("pool", pool).gauge());
+            assertNotNull(registry.find("hikaricp.connections.pending").tag("pool", pool).gauge());
+            assertTrue(registry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count() >= 1);
+        }
+    }
+
+    private HikariDataSource pool(String name, int size) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:pools;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMinimumIdle(0);
+        dataSource.setConnectionTimeout(250);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return dataSource;
+    }
+
+    // Pool que tiene la conexión prestada mientras se usa
+    private String poolOf(DataSource dataSource) throws SQLException {
+        try (Connection ignored = dataSource.getConnection()) {
+            return active(customer) > 0 ? customer.getPoolName() : reporting.getPoolName();
+        }
+    }
+
+    private static int active(HikariDataSource pool) {
+        return pool.getHikariPoolMXBean() != null ? pool.getHikariPoolMXBean().getActiveConnections() : 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.kitsune.BanckLoad.infrastructure.metrics;
+
+import com.kitsune.BanckLoad.infrastructure.config.MetricsConfig;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedServiceInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private Quotes quotes;
+
+    @Timed(value = "bankload.service", histogram = true)
+    static class Quotes {
+
+        public String quote(String id) {
+            if (id == null) {
+                throw new IllegalArgumentException("id requerido");
+            }
+            return "quote-" + id;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+        ProxyFactory factory = new ProxyFactory(new Quotes());
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(MetricsConfig.timedServiceAdvisor(beanFactory.getBeanProvider(MeterRegistry.class)));
+        quotes = (Quotes) factory.getProxy();
+    }
+
+    @Test
+    void testInvoke_RecordsTimerPerClassAndMethod() {
+        assertEquals("quote-1", quotes.quote("1"));
+        assertEquals("quote-2", quotes.quote("2"));
+
+        Timer timer = registry.get("bankload.service")
+                .tags("class", "Quotes", "method", "quote", "exception", "none")
+                .timer();
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    void testInvoke_TagsExceptionAndRethrows() {
+        assertThrows(IllegalArgumentException.class, () -> quotes.quote(null));
+
+        assertEquals(1, registry.get("bankload.service")
+                .tags("method", "quote", "exception", "IllegalArgumentException")
+                .timer().count());
+    }
+}
@@ -0,0 +1,240 @@
+package com.kitsune.BanckLoad.infrastructure.push;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.application.event.LoansImportedEvent;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanEventBroadcasterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private LoanEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doReturn(hashOperations).when(redisTemplate).opsForHash();
+        broadcaster = broadcaster(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void testEvents_RoutedToAdminsAndOwnerOnly() throws Exception {
+        RecordingEmitter admin = new RecordingEmitter();
+        RecordingEmitter alice = new RecordingEmitter();
+        RecordingEmitter bob = new RecordingEmitter();
+        receive(new LoanPushRelay("otro-nodo", true, List.of()));
+        broadcaster.subscribe("admin", true, admin);
+        broadcaster.subscribe("alice", false, alice);
+        broadcaster.subscribe("bob", false, bob);
+
+        broadcaster.onLoanCreated(new LoanCreatedEvent(loan(1L, "alice", "PENDING")));
+        broadcaster.onLoanReviewed(new LoanReviewedEvent(loan(1L, "alice", "APPROVED"), LoanStatus.PENDING));
+
+        admin.await(4);
+        alice.await(4);
+        assertEquals(List.of("LOAN_CREATED", "STATS_DELTA", "LOAN_REVIEWED", "STATS_DELTA"), admin.names());
+        assertEquals(admin.names(), alice.names());
+        assertTrue(alice.sent.get(2).contains("\"status\":\"APPROVED\""), alice.sent.get(2));
+        assertTrue(bob.sent.isEmpty());
+
+        // Un único reenvío por operación, fuera del hilo productor
+        broadcaster.shutdown();
+        verify(redisTemplate, times(2)).convertAndSend(eq(LoanEventBroadcaster.CHANNEL), argThat(eventRelay()));
+    }
+
+    @Test
+    void testLargeBatch_SummarizedPerRecipientInOneRelay() throws Exception {
+        RecordingEmitter admin = new RecordingEmitter();
+        RecordingEmitter alice = new RecordingEmitter();
+        receive(new LoanPushRelay("otro-nodo", true, List.of()));
+        broadcaster.subscribe("admin", true, admin);
+        broadcaster.subscribe("alice", false, alice);
+
+        List<LoanResponseDTO> loans = IntStream.range(0, LoanEventBroadcaster.DETAIL_LIMIT + 1)
+                .mapToObj(i -> loan((long) i, i % 2 == 0 ? "alice" : "bob", "PENDING"))
+                .toList();
+        broadcaster.onLoansImported(new LoansImportedEvent(loans));
+
+        admin.await(2);
+        assertEquals(List.of("LOANS_CHANGED", "STATS_DELTA"), admin.names());
+        assertTrue(admin.sent.get(1).contains("\"TOTAL\":101"), admin.sent.get(1));
+
+        alice.await(2);
+        assertEquals(List.of("LOANS_CHANGED", "STATS_DELTA"), alice.names());
+        assertTrue(alice.sent.get(0).contains("\"count\":51"), alice.sent.get(0));
+        assertTrue(alice.sent.get(1).contains("\"PENDING\":51"), alice.sent.get(1));
+
+        broadcaster.shutdown();
+        verify(redisTemplate, times(1)).convertAndSend(eq(LoanEventBroadcaster.CHANNEL), argThat(eventRelay()));
+    }
+
+    @Test
+    void testNoRemoteSubscribers_NothingRelayed() throws Exception {
+        RecordingEmitter alice = new RecordingEmitter();
+        broadcaster.subscribe("alice", false, alice);
+
+        broadcaster.onLoanCreated(new LoanCreatedEvent(loan(1L, "alice", "PENDING")));
+
+        alice.await(2);
+        assertEquals(List.of("LOAN_CREATED", "STATS_DELTA"), alice.names());
+        broadcaster.shutdown();
+        // Solo el anuncio de presencia del primer suscriptor
+        verify(hashOperations).put(eq(LoanEventBroadcaster.PRESENCE_KEY), anyString(), anyString());
+        verify(redisTemplate, never()).convertAndSend(eq(LoanEventBroadcaster.CHANNEL), argThat(eventRelay()));
+    }
+
+    @Test
+    void testHeartbeat_DetectsRemoteSubscribersAndPrunesExpiredNodes() throws Exception {
+        long now = System.currentTimeMillis();
+        when(hashOperations.entries(LoanEventBroadcaster.PRESENCE_KEY)).thenReturn(Map.of(
+                "otro-nodo", String.valueOf(now + 60_000),
+                "nodo-caido", String.valueOf(now - 1)));
+
+        broadcaster.heartbeat();
+        verify(hashOperations, timeout(1_000)).delete(LoanEventBroadcaster.PRESENCE_KEY, "nodo-caido");
+
+        // Sin suscriptores locales los eventos siguen saliendo hacia el nodo que sí los tiene
+        broadcaster.onLoanCreated(new LoanCreatedEvent(loan(1L, "alice", "PENDING")));
+        broadcaster.shutdown();
+        verify(redisTemplate, times(1)).convertAndSend(eq(LoanEventBroadcaster.CHANNEL), argThat(eventRelay()));
+    }
+
+    @Test
+    void testSlowConsumer_DroppedWithoutBlockingProducer() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        broadcaster.subscribe("admin", true, slow);
+
+        long start = System.nanoTime();
+        for (long id = 0; id < 20; id++) {
+            broadcaster.onLoanCreated(new LoanCreatedEvent(loan(id, "alice", "PENDING")));
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1_000, "El productor esperó " + elapsedMillis + " ms");
+        assertTrue(slow.completed);
+        assertEquals(0, broadcaster.subscriberCount());
+        release.countDown();
+    }
+
+    @Test
+    void testOnMessage_DeliversOnlyMessagesFromOtherNodes() throws Exception {
+        RecordingEmitter alice = new RecordingEmitter();
+        broadcaster.subscribe("alice", false, alice);
+
+        LoanPushMessage remote = new LoanPushMessage(LoanPushMessage.Type.LOAN_REVIEWED,
+                LoanPushMessage.Audience.ALL, "alice", "{\"id\":9}");
+        receive(new LoanPushRelay("otro-nodo", false, List.of(remote)));
+
+        alice.await(1);
+        assertEquals(List.of("LOAN_REVIEWED"), alice.names());
+        broadcaster.shutdown();
+        verify(redisTemplate, never()).convertAndSend(eq(LoanEventBroadcaster.CHANNEL), argThat(eventRelay()));
+    }
+
+    private LoanEventBroadcaster broadcaster(int bufferSize) {
+        return new LoanEventBroadcaster(redisTemplate, jsonMapper, bufferSize, Duration.ofMinutes(1),
+                Duration.ofSeconds(25), 100);
+    }
+
+    private void receive(LoanPushRelay relay) {
+        broadcaster.onMessage(new DefaultMessage(LoanEventBroadcaster.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                jsonMapper.writeValueAsBytes(relay)), null);
+    }
+
+    private static ArgumentMatcher<String> eventRelay() {
+        return json -> json != null && json.contains("\"presence\":false");
+    }
+
+    private static LoanResponseDTO loan(Long id, String username, String status) {
+        return LoanResponseDTO.builder().id(id).username(username).status(status).build();
+    }
+
+    // Emisor que registra lo enviado en lugar de escribir en una respuesta HTTP
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked;
+        private volatile boolean completed;
+
+        RecordingEmitter() {
+            this(null);
+        }
+
+        RecordingEmitter(CountDownLatch blocked) {
+            this.blocked = blocked;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (blocked != null) {
+                try {
+                    blocked.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> names() {
+            return sent.stream()
+                    .filter(text -> text.startsWith("event:"))
+                    .map(text -> text.substring(6, text.indexOf('\n')))
+                    .toList();
+        }
+
+        void await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.kitsune.BanckLoad.infrastructure.registration;
+
+import com.kitsune.BanckLoad.infrastructure.repository.UserIdentity;
+import com.kitsune.BanckLoad.infrastructure.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdentityIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private UserIdentityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserIdentityIndex(userRepository, redisTemplate, jsonMapper, 10_000, 0.01, true);
+    }
+
+    @Test
+    void testBeforeLoad_EverythingMightExist() {
+        assertFalse(index.isReady());
+        assertTrue(index.mightContainUsername("cualquiera"));
+        assertTrue(index.mightContainEmail("cualquiera@test.com"));
+    }
+
+    @Test
+    void testLoad_KnownValuesAlwaysMatch() {
+        List<UserIdentity> identities = IntStream.range(0, 1_000)
+                .mapToObj(i -> identity("user" + i, "user" + i + "@test.com"))
+                .toList();
+        when(userRepository.streamAllIdentities()).thenReturn(identities.stream());
+
+        index.load();
+
+        assertTrue(index.isReady());
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(index.mightContainUsername("user" + i));
+            assertTrue(index.mightContainEmail("user" + i + "@test.com"));
+        }
+        // Los falsos positivos quedan cerca de la tasa configurada
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> index.mightContainUsername("nuevo" + i))
+                .count();
+        assertTrue(falsePositives < 300, "Falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    void testLoadFailure_KeepsQueryingDatabase() {
+        when(userRepository.streamAllIdentities()).thenThrow(new RuntimeException("sin conexión"));
+
+        index.load();
+
+        assertFalse(index.isReady());
+        assertTrue(index.mightContainUsername("nuevo"));
+    }
+
+    @Test
+    void testRecord_AddsLocallyAndRelaysToOtherNodes() throws Exception {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.empty());
+        index.load();
+        assertFalse(index.mightContainUsername("alice"));
+
+        index.record("alice", "alice@test.com");
+
+        assertTrue(index.mightContainUsername("alice"));
+        assertTrue(index.mightContainEmail("alice@test.com"));
+        verify(redisTemplate).convertAndSend(eq(UserIdentityIndex.CHANNEL), anyString());
+    }
+
+    @Test
+    void testOnMessage_AppliesRegistrationsFromOtherNodes() throws Exception {
+        when(userRepository.streamAllIdentities()).thenReturn(Stream.empty());
+        index.load();
+        String body = jsonMapper.writeValueAsString(
+                new UserIdentityIndex.Registration("otro-nodo", "bob", "bob@test.com"));
+
+        index.onMessage(new DefaultMessage(UserIdentityIndex.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(index.mightContainUsername("bob"));
+        assertTrue(index.mightContainEmail("bob@test.com"));
+    }
+
+    private static UserIdentity identity(String username, String email) {
+        return new UserIdentity() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
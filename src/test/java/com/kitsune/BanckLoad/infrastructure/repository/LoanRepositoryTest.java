@@ -0,0 +1,198 @@
+package com.kitsune.BanckLoad.infrastructure.repository;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.domain.model.Loan;
+import com.kitsune.BanckLoad.domain.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class LoanRepositoryTest {
+
+    private static final int LOANS_PER_USER = 10;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User admin = entityManager.persist(user("admin", Set.of("ADMIN", "USER")));
+        User alice = entityManager.persist(user("alice", Set.of("USER")));
+        User bob = entityManager.persist(user("bob", Set.of("USER")));
+
+        for (int i = 0; i < LOANS_PER_USER; i++) {
+            entityManager.persist(loan(alice, i % 2 == 0 ? null : admin));
+            entityManager.persist(loan(bob, i % 3 == 0 ? admin : null));
+        }
+
+        // Sin entidades en el contexto de persistencia: cada asociación LAZY costaría una consulta
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindFirstPage_SingleStatement() {
+        List<LoanResponseDTO> page = loanRepository.findFirstPage(Limit.of(50));
+
+        assertEquals(2 * LOANS_PER_USER, page.size());
+        assertTrue(page.stream().allMatch(loan -> loan.getUsername() != null));
+        assertTrue(page.stream().anyMatch(loan -> "admin".equals(loan.getReviewedByUsername())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindFirstPageByStatus_SingleStatement() {
+        List<LoanResponseDTO> page = loanRepository.findFirstPageByStatus(Loan.LoanStatus.APPROVED, Limit.of(50));
+
+        assertFalse(page.isEmpty());
+        assertTrue(page.stream().allMatch(loan -> "APPROVED".equals(loan.getStatus())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindPageByUsernameAfter_SingleStatementPerPage() {
+        List<LoanResponseDTO> first = loanRepository.findFirstPageByUsername("alice", Limit.of(4));
+        LoanResponseDTO last = first.get(first.size() - 1);
+        List<LoanResponseDTO> second = loanRepository.findPageByUsernameAfter(
+                "alice", last.getRequestDate(), last.getId(), Limit.of(50));
+
+        assertEquals(4, first.size());
+        assertEquals(LOANS_PER_USER - 4, second.size());
+        assertTrue(second.stream().allMatch(loan -> "alice".equals(loan.getUsername())));
+        assertTrue(second.stream().noneMatch(loan -> first.stream().anyMatch(f -> f.getId().equals(loan.getId()))));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindRowById_SingleStatement() {
+        Long id = loanRepository.findFirstPage(Limit.of(1)).get(0).getId();
+        statistics.clear();
+
+        assertTrue(loanRepository.findRowById(id).isPresent());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCountGroupByStatus_SingleStatement() {
+        Map<Loan.LoanStatus, Long> global = loanRepository.countGroupByStatus().stream()
+                .collect(Collectors.toMap(StatusCount::getStatus, StatusCount::getTotal));
+        Map<Loan.LoanStatus, Long> bob = loanRepository.countGroupByStatusForUser("bob").stream()
+                .collect(Collectors.toMap(StatusCount::getStatus, StatusCount::getTotal));
+
+        assertEquals(Map.of(Loan.LoanStatus.APPROVED, 9L, Loan.LoanStatus.PENDING, 11L), global);
+        assertEquals(Map.of(Loan.LoanStatus.APPROVED, 4L, Loan.LoanStatus.PENDING, 6L), bob);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testDailyRollups_GroupedByDay() {
+        List<DailyRequestRollup> requests = loanRepository.sumRequestsByDay();
+        List<DailyStatusCount> reviews = loanRepository.countReviewsByDay();
+
+        assertEquals(1, requests.size());
+        assertEquals(LocalDate.now(), requests.get(0).getDay());
+        assertEquals(2 * LOANS_PER_USER, requests.get(0).getRequested());
+        assertEquals(0, new BigDecimal("20000.00").compareTo(requests.get(0).getAmount()));
+        assertEquals(2 * LOANS_PER_USER * 12, requests.get(0).getTermSum());
+        assertEquals(1, reviews.size());
+        assertEquals(Loan.LoanStatus.APPROVED, reviews.get(0).getStatus());
+        assertEquals(9, reviews.get(0).getTotal());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindFacts_KeysetWithoutEntities() {
+        List<LoanFacts> first = loanRepository.findFactsAfterId(0L, Limit.of(15));
+        List<LoanFacts> rest = loanRepository.findFactsAfterId(first.get(first.size() - 1).getId(), Limit.of(50));
+        List<LoanFacts> updated = loanRepository.findFactsUpdatedAfter(LocalDateTime.now().minusDays(1), 0L,
+                Limit.of(50));
+
+        assertEquals(15, first.size());
+        assertEquals(2 * LOANS_PER_USER - 15, rest.size());
+        assertTrue(first.stream().allMatch(facts -> facts.getUserId() != null && facts.getUpdatedAt() != null));
+        assertEquals(2 * LOANS_PER_USER, updated.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testStreamForExport_FiltersWithoutManagedEntities() {
+        try (Stream<LoanResponseDTO> stream = loanRepository.streamForExport(EnumSet.of(Loan.LoanStatus.APPROVED),
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1))) {
+            List<LoanResponseDTO> rows = stream.toList();
+
+            assertEquals(9, rows.size());
+            assertTrue(rows.stream().allMatch(loan -> "APPROVED".equals(loan.getStatus())));
+        }
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testEntityMapping_TriggersExtraSelects() {
+        // Referencia: el mapeo desde entidades dispara selects adicionales por usuario, revisor y roles
+        List<LoanResponseDTO> loans = loanRepository.findAll().stream()
+                .map(LoanResponseDTO::fromEntity)
+                .toList();
+
+        assertEquals(2 * LOANS_PER_USER, loans.size());
+        assertTrue(statistics.getPrepareStatementCount() > 1);
+    }
+
+    private static User user(String username, Set<String> roles) {
+        return User.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .password("password")
+                .fullName(username)
+                .roles(roles)
+                .enabled(true)
+                .build();
+    }
+
+    private static Loan loan(User owner, User reviewer) {
+        return Loan.builder()
+                .amount(new BigDecimal("1000.00"))
+                .term(12)
+                .purpose("Préstamo de prueba")
+                .user(owner)
+                .status(reviewer == null ? Loan.LoanStatus.PENDING : Loan.LoanStatus.APPROVED)
+                .reviewedBy(reviewer)
+                .reviewedAt(reviewer == null ? null : LocalDateTime.now())
+                .build();
+    }
+}
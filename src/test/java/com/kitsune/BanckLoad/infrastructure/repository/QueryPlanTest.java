@@ -0,0 +1,163 @@
+package com.kitsune.BanckLoad.infrastructure.repository;
+
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.domain.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plan de ejecución (EXPLAIN) de cada consulta de LoanRepository y UserRepository sobre el esquema de las
+ * migraciones con una tabla de préstamos grande: ninguna puede recorrer una tabla completa. Quedan fuera
+ * las agregaciones sin filtro que solo usa la reconstrucción de rollups y la carga del índice de registro.
+ * <p>
+ * Se ejecuta sobre H2: los índices salen de db/migration/h2, con la misma definición que los de PostgreSQL salvo
+ * CONCURRENTLY y el índice parcial, que se sustituye por su equivalente.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.kitsune.BanckLoad.infrastructure.repository.QueryPlanTest$RecordingInspector"
+})
+class QueryPlanTest {
+
+    private static final int USERS = 200;
+    private static final int LOANS = 20_000;
+
+    /**
+     * Registra el SQL que Hibernate prepara para poder pedir su plan después
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> fullScans = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, full_name, enabled, created_at, updated_at) " +
+                "SELECT X, 'user' || X, 'user' || X || '@test.com', 'hash', 'Usuario ' || X, TRUE, " +
+                "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + USERS + ")");
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) SELECT X, 'USER' FROM SYSTEM_RANGE(1, " + USERS + ")");
+        jdbcTemplate.update("INSERT INTO loans (id, amount, term, purpose, user_id, status, request_date, " +
+                "reviewed_at, reviewed_by, updated_at) " +
+                "SELECT X, 1000 + MOD(X, 50) * 100, 12, 'Préstamo ' || X, MOD(X, " + USERS + ") + 1, " +
+                "CASE MOD(X, 10) WHEN 0 THEN 'PENDING' WHEN 1 THEN 'REJECTED' ELSE 'APPROVED' END, " +
+                "DATEADD('MINUTE', -X, CURRENT_TIMESTAMP), " +
+                "CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE DATEADD('MINUTE', -X + 5, CURRENT_TIMESTAMP) END, " +
+                "CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE 1 END, " +
+                "DATEADD('MINUTE', -X, CURRENT_TIMESTAMP) FROM SYSTEM_RANGE(1, " + LOANS + ")");
+    }
+
+    @Test
+    void testLoanQueries_NoFullTableScan() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<LoanStatus> reviewed = EnumSet.of(LoanStatus.APPROVED, LoanStatus.REJECTED);
+        User user = userRepository.getReferenceById(7L);
+
+        check("findByUser", () -> loanRepository.findByUser(user));
+        check("findByUserId", () -> loanRepository.findByUserId(7L));
+        check("findByStatus", () -> loanRepository.findByStatus(LoanStatus.PENDING));
+        check("findByUserIdAndStatus", () -> loanRepository.findByUserIdAndStatus(7L, LoanStatus.PENDING));
+        check("findRowById", () -> loanRepository.findRowById(42L));
+        check("findFirstPage", () -> loanRepository.findFirstPage(Limit.of(21)));
+        check("findPageAfter", () -> loanRepository.findPageAfter(now.minusDays(1), 500L, Limit.of(21)));
+        check("findFirstPageByStatus", () -> loanRepository.findFirstPageByStatus(LoanStatus.PENDING, Limit.of(21)));
+        check("findPageByStatusAfter", () -> loanRepository.findPageByStatusAfter(LoanStatus.PENDING,
+                now.minusDays(1), 500L, Limit.of(21)));
+        check("findFirstPageByUsername", () -> loanRepository.findFirstPageByUsername("user7", Limit.of(21)));
+        check("findPageByUsernameAfter", () -> loanRepository.findPageByUsernameAfter("user7",
+                now.minusDays(1), 500L, Limit.of(21)));
+        check("findRowsByStatusAfterId", () -> loanRepository.findRowsByStatusAfterId(reviewed, 100L, Limit.of(100)));
+        check("findRowsByUsernameAndStatusAfterId", () -> loanRepository.findRowsByUsernameAndStatusAfterId(
+                "user7", reviewed, 100L, Limit.of(100)));
+        check("findRowsByIdIn", () -> loanRepository.findRowsByIdIn(List.of(1L, 2L, 3L)));
+        check("reviewPending", () -> loanRepository.reviewPending(List.of(10L, 20L), LoanStatus.APPROVED, null,
+                now, user, LoanStatus.PENDING));
+        check("countByStatus", () -> loanRepository.countByStatus(LoanStatus.PENDING));
+        check("countByUser_Username", () -> loanRepository.countByUser_Username("user7"));
+        check("countByUser_UsernameAndStatus", () -> loanRepository.countByUser_UsernameAndStatus("user7",
+                LoanStatus.PENDING));
+        check("countGroupByStatus", () -> loanRepository.countGroupByStatus());
+        check("countGroupByStatusForUser", () -> loanRepository.countGroupByStatusForUser("user7"));
+        check("streamForExport", () -> {
+            try (Stream<?> rows = loanRepository.streamForExport(reviewed, now.minusDays(2), now.minusDays(1))) {
+                rows.forEach(row -> { });
+            }
+        });
+        check("findFactsAfterId", () -> loanRepository.findFactsAfterId(100L, Limit.of(1000)));
+        check("findFactsUpdatedAfter", () -> loanRepository.findFactsUpdatedAfter(now.minusHours(1), 0L,
+                Limit.of(1000)));
+
+        assertTrue(fullScans.isEmpty(), "Consultas con recorrido completo:\n" + String.join("\n", fullScans));
+    }
+
+    @Test
+    void testUserQueries_NoFullTableScan() {
+        check("findByUsername", () -> userRepository.findByUsername("user7"));
+        check("findByEmail", () -> userRepository.findByEmail("user7@test.com"));
+        check("existsByUsername", () -> userRepository.existsByUsername("user7"));
+        check("existsByEmail", () -> userRepository.existsByEmail("user7@test.com"));
+        check("findAllWithRolesByUsernameIn", () -> userRepository.findAllWithRolesByUsernameIn(
+                List.of("user7", "user8")));
+        check("updatePasswordHash", () -> userRepository.updatePasswordHash(7L, "hash", "newHash",
+                LocalDateTime.now()));
+
+        assertTrue(fullScans.isEmpty(), "Consultas con recorrido completo:\n" + String.join("\n", fullScans));
+    }
+
+    @Test
+    void testExplain_DetectsFullTableScan() {
+        // Control: el estado de revisión no tiene índice propio
+        assertTrue(explain("SELECT id FROM loans WHERE reviewed_at > CURRENT_TIMESTAMP").contains(".tableScan"));
+    }
+
+    private void check(String method, Runnable call) {
+        RecordingInspector.STATEMENTS.clear();
+        call.run();
+        Set<String> statements = new LinkedHashSet<>(RecordingInspector.STATEMENTS);
+        assertFalse(statements.isEmpty(), method + " no ejecutó ninguna consulta");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            if (plan.contains(".tableScan")) {
+                fullScans.add(method + ": " + plan.replaceAll("\\s+", " "));
+            }
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
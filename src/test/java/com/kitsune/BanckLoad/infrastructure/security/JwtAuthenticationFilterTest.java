@@ -0,0 +1,99 @@
+package com.kitsune.BanckLoad.infrastructure.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JwtService jwtService = new JwtService(SECRET, Duration.ofHours(1).toMillis(), 100);
+    private final FilterChain chain = mock(FilterChain.class);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testFilter_AuthenticatesWithCurrentRoles() throws Exception {
+        AuthenticatedUser atLogin = new AuthenticatedUser(7L, "alice", Set.of("USER", "ADMIN"), true);
+        AuthenticatedUser current = new AuthenticatedUser(7L, "alice", Set.of("USER"), true);
+        when(userDetailsService.loadPrincipal("alice")).thenReturn(current);
+        MockHttpServletRequest request = request("/api/loans/my-loans");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(atLogin));
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Los roles retirados tras el login ya no cuentan, aunque el token siga vigente
+        assertEquals(current, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        assertEquals(1, timerCount("authenticated"));
+        verify(chain).doFilter(any(), any());
+    }
+
+    @Test
+    void testFilter_DisabledOrRecreatedAccountNotAuthenticated() throws Exception {
+        AuthenticatedUser alice = new AuthenticatedUser(7L, "alice", Set.of("USER"), true);
+        String token = jwtService.generateToken(alice);
+
+        when(userDetailsService.loadPrincipal("alice"))
+                .thenReturn(new AuthenticatedUser(7L, "alice", Set.of("USER"), false))
+                .thenReturn(new AuthenticatedUser(8L, "alice", Set.of("USER"), true));
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = request("/api/loans/my-loans");
+            request.addHeader("Authorization", "Bearer " + token);
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(2, timerCount("anonymous"));
+    }
+
+    @Test
+    void testFilter_RecordsOutcomePerRequest() throws Exception {
+        MockHttpServletRequest invalid = request("/api/loans/my-loans");
+        invalid.addHeader("Authorization", "Bearer no-es-un-token");
+
+        filter.doFilter(request("/api/auth/login"), new MockHttpServletResponse(), chain);
+        filter.doFilter(request("/api/loans/my-loans"), new MockHttpServletResponse(), chain);
+        filter.doFilter(invalid, new MockHttpServletResponse(), chain);
+
+        assertEquals(1, timerCount("skipped"));
+        assertEquals(1, timerCount("anonymous"));
+        assertEquals(1, timerCount("rejected"));
+        assertEquals(0, timerCount("authenticated"));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(chain, times(3)).doFilter(any(), any());
+    }
+
+    private long timerCount(String outcome) {
+        return registry.get(JwtAuthenticationFilter.TIMER_NAME).tag("outcome", outcome).timer().count();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRequestURI(path);
+        return request;
+    }
+}
@@ -0,0 +1,114 @@
+package com.kitsune.BanckLoad.infrastructure.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+    private static final String OTHER_SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final long EXPIRATION = Duration.ofHours(1).toMillis();
+
+    private MutableClock clock;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        jwtService = new JwtService(SECRET, EXPIRATION, 100, clock);
+    }
+
+    @Test
+    void testVerify_CachesTokenAfterFirstVerification() {
+        String token = jwtService.generateToken("alice");
+
+        JwtService.VerifiedToken first = jwtService.verify(token);
+        JwtService.VerifiedToken second = jwtService.verify(token);
+
+        assertEquals("alice", first.username());
+        assertEquals(Instant.parse("2025-01-01T11:00:00Z"), first.expiresAt());
+        assertSame(first, second);
+        assertEquals(1, jwtService.cachedTokens());
+    }
+
+    @Test
+    void testVerify_UserIdComesFromClaims() {
+        AuthenticatedUser alice = new AuthenticatedUser(7L, "alice", Set.of("USER", "AUDITOR"), true);
+
+        JwtService.VerifiedToken withClaims = jwtService.verify(jwtService.generateToken(alice));
+        JwtService.VerifiedToken legacy = jwtService.verify(jwtService.generateToken("alice"));
+
+        assertEquals("alice", withClaims.username());
+        assertEquals(7L, withClaims.userId());
+        assertEquals("alice", legacy.username());
+        assertNull(legacy.userId());
+    }
+
+    @Test
+    void testVerify_RejectsForeignSignatureWithoutCaching() {
+        String foreign = new JwtService(OTHER_SECRET, EXPIRATION, 100, clock).generateToken("alice");
+
+        assertThrows(JwtException.class, () -> jwtService.verify(foreign));
+        assertThrows(JwtException.class, () -> jwtService.verify(foreign));
+        assertEquals(0, jwtService.cachedTokens());
+    }
+
+    @Test
+    void testVerify_CachedTokenStopsWorkingWhenExpired() {
+        String token = jwtService.generateToken("alice");
+        jwtService.verify(token);
+
+        clock.advance(Duration.ofMillis(EXPIRATION).plusSeconds(1));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+        assertEquals(0, jwtService.cachedTokens());
+    }
+
+    @Test
+    void testVerify_WorksWithCacheDisabled() {
+        JwtService uncached = new JwtService(SECRET, EXPIRATION, 0, clock);
+        String token = uncached.generateToken("bob");
+
+        assertEquals("bob", uncached.verify(token).username());
+        assertEquals("bob", uncached.extractUsername(token));
+        assertEquals(0, uncached.cachedTokens());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
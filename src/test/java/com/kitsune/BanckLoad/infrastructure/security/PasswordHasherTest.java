@@ -0,0 +1,88 @@
+package com.kitsune.BanckLoad.infrastructure.security;
+
+import com.kitsune.BanckLoad.application.exception.LoginThrottledException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void testMatches_VerifiesOnPoolAndRejectsMissingHash() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 4);
+        String hash = hasher.encode("secreto123");
+
+        assertTrue(hasher.matches("secreto123", hash));
+        assertFalse(hasher.matches("otra", hash));
+        // Sin usuario se compara contra el hash ficticio y nunca coincide
+        assertFalse(hasher.matches("dummy-password", null));
+    }
+
+    @Test
+    void testNeedsRehash_WhenCostFactorIncreases() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("secreto123");
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(5), 1, 4);
+
+        assertTrue(hasher.needsRehash(weakHash));
+        assertFalse(hasher.needsRehash(hasher.encode("secreto123")));
+    }
+
+    @Test
+    void testMatches_FailsFastWhenQueueIsFull() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        };
+        hasher = new PasswordHasher(slow, 1, 1);
+        String hash = bcrypt.encode("secreto123");
+
+        // Uno ocupa el único hilo y otro la única plaza de la cola
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> hasher.matches("secreto123", hash));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> hasher.matches("secreto123", hash));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hasher.queued() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        long start = System.nanoTime();
+        assertThrows(LoginThrottledException.class, () -> hasher.matches("secreto123", hash));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,118 @@
+package com.kitsune.BanckLoad.infrastructure.statistics;
+
+import com.kitsune.BanckLoad.application.dto.LoanResponseDTO;
+import com.kitsune.BanckLoad.application.event.LoanCreatedEvent;
+import com.kitsune.BanckLoad.application.event.LoanReviewedEvent;
+import com.kitsune.BanckLoad.domain.model.Loan.LoanStatus;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import com.kitsune.BanckLoad.infrastructure.repository.StatusCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanStatisticsCountersTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @InjectMocks
+    private LoanStatisticsCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    }
+
+    @Test
+    void testGetGlobalCounts_ReadsHashWithoutQueryingDatabase() {
+        when(hashOperations.entries(LoanStatisticsCounters.GLOBAL_KEY)).thenReturn(Map.of(
+                "TOTAL", "7", "PENDING", "2", "APPROVED", "4", "REJECTED", "1"));
+
+        Map<LoanStatus, Long> counts = counters.getGlobalCounts();
+
+        assertEquals(2L, counts.get(LoanStatus.PENDING));
+        assertEquals(4L, counts.get(LoanStatus.APPROVED));
+        assertEquals(1L, counts.get(LoanStatus.REJECTED));
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    void testGetUserCounts_SeedsMissingHashFromDatabase() {
+        when(hashOperations.entries("stats:user:alice")).thenReturn(Map.of());
+        when(loanRepository.countGroupByStatusForUser("alice"))
+                .thenReturn(List.of(count(LoanStatus.PENDING, 3), count(LoanStatus.APPROVED, 1)));
+
+        Map<LoanStatus, Long> counts = counters.getUserCounts("alice");
+
+        assertEquals(3L, counts.get(LoanStatus.PENDING));
+        assertEquals(1L, counts.get(LoanStatus.APPROVED));
+        assertEquals(0L, counts.get(LoanStatus.REJECTED));
+        verify(hashOperations).putAll("stats:user:alice",
+                Map.of("TOTAL", "4", "PENDING", "3", "APPROVED", "1", "REJECTED", "0"));
+    }
+
+    @Test
+    void testOnLoanReviewed_MovesCountBetweenStatuses() {
+        LoanResponseDTO loan = LoanResponseDTO.builder().id(1L).username("alice").status("APPROVED").build();
+
+        counters.onLoanReviewed(new LoanReviewedEvent(loan, LoanStatus.PENDING));
+
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of(LoanStatisticsCounters.GLOBAL_KEY)),
+                eq("PENDING"), eq("-1"), eq("APPROVED"), eq("1"));
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of("stats:user:alice")),
+                eq("PENDING"), eq("-1"), eq("APPROVED"), eq("1"));
+        verify(setOperations).add(LoanStatisticsCounters.DIRTY_USERS_KEY, "alice");
+    }
+
+    @Test
+    void testOnLoanCreated_RedisFailureDoesNotPropagate() {
+        LoanResponseDTO loan = LoanResponseDTO.builder().id(1L).username("alice").status("PENDING").build();
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(Object[].class)))
+                .thenThrow(new RuntimeException("Redis caído"));
+
+        assertDoesNotThrow(() -> counters.onLoanCreated(new LoanCreatedEvent(loan)));
+        verify(hashOperations, never()).putAll(any(), anyMap());
+    }
+
+    private static StatusCount count(LoanStatus status, long total) {
+        return new StatusCount() {
+            @Override
+            public LoanStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.kitsune.BanckLoad.infrastructure.statistics;
+
+import com.kitsune.BanckLoad.infrastructure.repository.DailyRequestRollup;
+import com.kitsune.BanckLoad.infrastructure.repository.LoanRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanStatisticsRollupsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 5);
+    private static final String STALE_KEY = LoanStatisticsRollups.key(RollupGranularity.DAY, DAY.minusDays(1));
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private RedisOperations<String, String> operations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @InjectMocks
+    private LoanStatisticsRollups rollups;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRebuild_ReplacesExistingBucketsInOneTransaction() {
+        DailyRequestRollup row = mock(DailyRequestRollup.class);
+        when(row.getDay()).thenReturn(DAY);
+        when(row.getRequested()).thenReturn(2L);
+        when(row.getAmount()).thenReturn(new BigDecimal("1500.50"));
+        when(row.getTermSum()).thenReturn(24L);
+        when(loanRepository.sumRequestsByDay()).thenReturn(List.of(row));
+        when(loanRepository.countReviewsByDay()).thenReturn(List.of());
+
+        // Un bucket de una reconstrucción anterior que ya no tiene actividad
+        Cursor<String> dayKeys = cursor(STALE_KEY);
+        Cursor<String> noKeys = cursor();
+        when(redisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation ->
+                ((ScanOptions) invocation.getArgument(0)).getPattern().contains(":DAY:") ? dayKeys : noKeys);
+        doReturn(hashOperations).when(operations).opsForHash();
+        when(redisTemplate.execute(any(SessionCallback.class))).thenAnswer(invocation ->
+                ((SessionCallback<?>) invocation.getArgument(0)).execute(operations));
+
+        assertEquals(RollupGranularity.values().length, rollups.rebuild());
+
+        String dayKey = LoanStatisticsRollups.key(RollupGranularity.DAY, DAY);
+        ArgumentCaptor<Collection<String>> unlinked = ArgumentCaptor.forClass(Collection.class);
+        InOrder order = inOrder(operations, hashOperations);
+        order.verify(operations).multi();
+        order.verify(operations).unlink(unlinked.capture());
+        order.verify(hashOperations).putAll(eq(dayKey), argThat(hash -> "2".equals(hash.get("requested"))
+                && "150050".equals(hash.get("amountCents")) && "24".equals(hash.get("termSum"))));
+        order.verify(operations).exec();
+
+        assertTrue(unlinked.getValue().containsAll(List.of(STALE_KEY, dayKey)), unlinked.getValue().toString());
+        verify(hashOperations, never()).putAll(eq(STALE_KEY), anyMap());
+    }
+
+    @Test
+    void testBackfill_FailureReleasesLockWithoutMarker() {
+        when(redisTemplate.hasKey(LoanStatisticsRollups.BACKFILL_MARKER_KEY)).thenReturn(false);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(LoanStatisticsRollups.BACKFILL_LOCK_KEY), anyString(),
+                eq(LoanStatisticsRollups.BACKFILL_LOCK_TTL))).thenReturn(true);
+        when(loanRepository.sumRequestsByDay()).thenThrow(new QueryTimeoutException("timeout"));
+
+        rollups.backfillIfMissing();
+
+        // Sin marca el siguiente arranque vuelve a intentarlo
+        verify(valueOperations, never()).set(eq(LoanStatisticsRollups.BACKFILL_MARKER_KEY), anyString());
+        verify(redisTemplate).delete(LoanStatisticsRollups.BACKFILL_LOCK_KEY);
+    }
+
+    @Test
+    void testBackfill_SkippedWhenMarkedOrLockedByAnotherNode() {
+        when(redisTemplate.hasKey(LoanStatisticsRollups.BACKFILL_MARKER_KEY)).thenReturn(true, false);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(LoanStatisticsRollups.BACKFILL_LOCK_KEY), anyString(),
+                eq(LoanStatisticsRollups.BACKFILL_LOCK_TTL))).thenReturn(false);
+
+        rollups.backfillIfMissing();
+        rollups.backfillIfMissing();
+
+        verify(valueOperations, times(1)).setIfAbsent(eq(LoanStatisticsRollups.BACKFILL_LOCK_KEY), anyString(),
+                eq(LoanStatisticsRollups.BACKFILL_LOCK_TTL));
+        verifyNoInteractions(loanRepository);
+        verify(redisTemplate, never()).delete(LoanStatisticsRollups.BACKFILL_LOCK_KEY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursor(String... keys) {
+        Cursor<String> cursor = mock(Cursor.class);
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            for (String key : keys) {
+                action.accept(key);
+            }
+            return null;
+        }).when(cursor).forEachRemaining(any());
+        return cursor;
+    }
+}